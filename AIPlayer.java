@@ -8,6 +8,8 @@ public abstract class AIPlayer extends Player {
     public static void registerAllAIPlayers() {
         registerAIPlayerType("RandomAI", RandomAI.class);
         registerAIPlayerType("GreedyAI", GreedyAI.class);
+        registerAIPlayerType("AlphaBetaAI", AlphaBetaAI.class);
+        registerAIPlayerType("MctsAI", MctsAI.class);
         // Add more AIPlayer subclasses here as needed
     }
     @Override
@@ -40,6 +42,26 @@ public abstract class AIPlayer extends Player {
         }
     }
 
+    // Create an AI player that searches on a single thread, so that several can play at once, one per core,
+    // without their searches competing for the cores
+    public static AIPlayer createSingleThreadedAIPlayer(String aiPlayerType, boolean isPlayerOne) {
+        if (aiPlayerRegistry.get(aiPlayerType) == MctsAI.class) {
+            return new MctsAI(isPlayerOne, MctsSearch.Mode.TREE, 1, MctsSearch.DEFAULT_EXPLORATION,
+                    MctsAI.DEFAULT_TIME_BUDGET_MILLIS, 0);
+        }
+        return createAIPlayer(aiPlayerType, isPlayerOne); // the other types already search on one thread
+    }
+
+    // The memory this player holds for its own searches, in bytes, or -1 if its searches have no memory bound
+    public long getFootprintBytes() {
+        return 0;
+    }
+
+    // The memory of the tables that every player of this class shares, in bytes; it is held once however many play
+    public long getSharedFootprintBytes() {
+        return 0;
+    }
+
     // Retrieve the list of registered AI player types
     public static List<String> getAIPlayerTypes() {
         return new ArrayList<>(aiPlayerRegistry.keySet());
@@ -0,0 +1,134 @@
+/**
+ * Represents an AlphaBetaAI player in the Reversi game.
+ * This AI player searches the game tree with iterative-deepening alpha-beta (see AlphaBetaSearch) and plays
+ * the best move found within its time budget, so it plays stronger the more time it is given.
+ * The type of the placed disc is part of every searched move, and special discs are only used while
+ * the player has some left.
+ * With more than one thread, the search runs in parallel in the Lazy SMP style (see LazySmpSearch).
+ * Positions are scored by the PatternEvaluator if a weight file is present, and by the hand-written
+ * evaluation otherwise.
+ * In the opening it plays the moves of the OpeningBook, if a book file is present.
+ * Once few enough squares are empty, the player gives the EndgameSolver half of its time budget and plays a
+ * winning move whenever one exists; if the position is lost or the solver runs out of time, the normal search
+ * decides with the time left, as a win/loss solve does not tell the losing moves apart.
+ */
+public class AlphaBetaAI extends AIPlayer {
+    public static final long DEFAULT_TIME_BUDGET_MILLIS = 500; // the time budget of one move
+    private static final int MAX_DEPTH = 64; // deeper than any game can last
+    private static final TranspositionTable SHARED_TABLE = new TranspositionTable(64); // shared by all instances
+    private static final TranspositionTable SOLVER_TABLE = new TranspositionTable(16); // for the endgame solver
+    private static final OpeningBook BOOK = OpeningBook.openDefault(); // EMPTY if there is no book file
+    private static final Evaluator EVALUATOR = PatternEvaluator.openDefault(); // HEURISTIC if there are no weights
+
+    private final long timeBudgetMillis;
+    private final LazySmpSearch search;
+    private final EndgameSolver solver = new EndgameSolver(SOLVER_TABLE);
+    private final int endgameEmpties;
+
+    /**
+     * Constructs a single-threaded AlphaBetaAI player with the default time budget.
+     *
+     * @param isPlayerOne a boolean indicating whether this player is Player One (true) or Player Two (false)
+     */
+    public AlphaBetaAI(boolean isPlayerOne) {
+        this(isPlayerOne, DEFAULT_TIME_BUDGET_MILLIS);
+    }
+
+    /**
+     * Constructs a single-threaded AlphaBetaAI player.
+     *
+     * @param isPlayerOne      a boolean indicating whether this player is Player One (true) or Player Two (false)
+     * @param timeBudgetMillis the time the player may think about one move, in milliseconds
+     */
+    public AlphaBetaAI(boolean isPlayerOne, long timeBudgetMillis) {
+        this(isPlayerOne, timeBudgetMillis, 1, EndgameSolver.DEFAULT_EMPTIES);
+    }
+
+    /**
+     * Constructs an AlphaBetaAI player.
+     *
+     * @param isPlayerOne      a boolean indicating whether this player is Player One (true) or Player Two (false)
+     * @param timeBudgetMillis the time the player may think about one move, in milliseconds
+     * @param threads          the number of search threads
+     * @param endgameEmpties   the number of empty squares at which the player switches to the endgame solver,
+     *                         or 0 to never use it
+     */
+    public AlphaBetaAI(boolean isPlayerOne, long timeBudgetMillis, int threads, int endgameEmpties) {
+        super(isPlayerOne);
+        this.timeBudgetMillis = timeBudgetMillis;
+        this.search = new LazySmpSearch(SHARED_TABLE, threads, EVALUATOR);
+        this.endgameEmpties = endgameEmpties;
+    }
+
+    /**
+     * Determines the best move for the AlphaBetaAI player by searching a copy of the current game state.
+     * The game and the players are not changed.
+     *
+     * @param gameStatus the current game state, represented by an implementation of the PlayableLogic interface
+     * @return a Move object representing the chosen move and the type of disc to be placed,
+     *         or null if no valid moves are available
+     */
+    @Override
+    public Move makeMove(PlayableLogic gameStatus) {
+        BitboardGameLogic game = BitboardGameLogic.copyOf(gameStatus);
+        int move = BOOK.lookup(game);
+        long begin = System.nanoTime();
+        if (move == OpeningBook.NO_MOVE && EndgameSolver.empties(game) <= endgameEmpties) {
+            move = solver.solve(game, false, timeBudgetMillis / 2);
+            if (move != EndgameSolver.NO_MOVE && solver.getScore() < 0) {
+                move = EndgameSolver.NO_MOVE; // lost: every move failed low, so let the search pick the best try
+            }
+        }
+        if (move == EndgameSolver.NO_MOVE) { // out of the book and not solved to a win
+            long left = timeBudgetMillis - (System.nanoTime() - begin) / 1_000_000L;
+            move = search.search(game, Math.max(1, left), MAX_DEPTH);
+        }
+        if (move == AlphaBetaSearch.NO_MOVE) {
+            return null; // No valid moves, return null
+        }
+        int type = PackedMove.type(move);
+        if ((type == PackedMove.BOMB && getNumber_of_bombs() <= 0)
+                || (type == PackedMove.UNFLIPPABLE && getNumber_of_unflippedable() <= 0)) {
+            move = PackedMove.of(PackedMove.square(move), PackedMove.SIMPLE); // the copy's inventory was out of date
+        }
+        return PackedMove.toMove(move, this);
+    }
+
+    /**
+     * Returns the memory of the search buffers of this player: one set per search thread and one for the solver.
+     *
+     * @return the footprint in bytes
+     */
+    @Override
+    public long getFootprintBytes() {
+        return search.getThreads() * AlphaBetaSearch.BUFFER_BYTES + EndgameSolver.BUFFER_BYTES;
+    }
+
+    /**
+     * Returns the memory of the transposition tables that every AlphaBetaAI shares.
+     *
+     * @return the shared footprint in bytes
+     */
+    @Override
+    public long getSharedFootprintBytes() {
+        return SHARED_TABLE.getBytes() + SOLVER_TABLE.getBytes();
+    }
+
+    /**
+     * Returns the search used by this player, to read its statistics after a move.
+     *
+     * @return the search of this player
+     */
+    public LazySmpSearch getSearch() {
+        return search;
+    }
+
+    /**
+     * Returns the endgame solver used by this player, to read its statistics after a move.
+     *
+     * @return the endgame solver of this player
+     */
+    public EndgameSolver getSolver() {
+        return solver;
+    }
+}
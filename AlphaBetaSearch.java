@@ -0,0 +1,350 @@
+import java.util.Arrays;
+
+/**
+ * The AlphaBetaSearch class finds the best packed move of a position with a negamax alpha-beta search.
+ * It deepens iteratively until its time budget runs out, searches every non-first move with a null window
+ * (principal variation search) and starts every iteration after the first with an aspiration window around
+ * the previous score. Results are kept in a TranspositionTable, which also gives the first move to try.
+ * A move is a square together with the type of the placed disc, so bombs and unflippable discs are searched
+ * like any other move, as long as the player to move has one left.
+ * An instance is not thread-safe: every search thread needs its own, but they may share the table.
+ */
+public class AlphaBetaSearch {
+    public static final int WIN = 10_000; // the score of a won game, plus the final disc difference
+    public static final int INFINITY = 20_000; // above every score
+    public static final int NO_MOVE = -1; // returned when the player to move has no valid move
+    private static final int BOARD_SIZE = 8;
+    private static final int MAX_PLY = BOARD_SIZE * BOARD_SIZE; // every move fills one square
+    private static final int MAX_MOVES = 3 * BOARD_SIZE * BOARD_SIZE; // every square with each of the 3 disc types
+    private static final int HISTORY_SIZE = 256; // every packed move
+    public static final long BUFFER_BYTES = // the memory of the move, ordering and history buffers of one search
+            (2L * (MAX_PLY + 1) * MAX_MOVES + HISTORY_SIZE) * Integer.BYTES;
+    private static final int ASPIRATION_WINDOW = 40; // the half-width of the first window around the last score
+    private static final long MAX_BUDGET_MILLIS = 86_400_000L; // longer budgets are cut to a day
+    private static final int CLOCK_INTERVAL = 1023; // the clock is read once every CLOCK_INTERVAL + 1 nodes
+    private static final int MOBILITY_WEIGHT = 8; // the value of one more valid move than the opponent
+    private static final int UNFLIPPABLE_WEIGHT = 15; // the value of an unflippable disc on the board
+    private static final int BOMB_LEFT_WEIGHT = 6; // the value of a BombDisc still in hand
+    private static final int UNFLIPPABLE_LEFT_WEIGHT = 10; // the value of an UnflippableDisc still in hand
+    private static final int[] SQUARE_WEIGHTS = {
+            100, -20, 10, 5, 5, 10, -20, 100,
+            -20, -50, -2, -2, -2, -2, -50, -20,
+            10, -2, -1, -1, -1, -1, -2, 10,
+            5, -2, -1, -1, -1, -1, -2, 5,
+            5, -2, -1, -1, -1, -1, -2, 5,
+            10, -2, -1, -1, -1, -1, -2, 10,
+            -20, -50, -2, -2, -2, -2, -50, -20,
+            100, -20, 10, 5, 5, 10, -20, 100};
+
+    private final TranspositionTable table;
+    private final Evaluator evaluator;
+    private final int[][] moveBuffers = new int[MAX_PLY + 1][MAX_MOVES]; // the moves of every ply, no allocation
+    private final int[][] orderBuffers = new int[MAX_PLY + 1][MAX_MOVES]; // the ordering scores of those moves
+    private final int[] history = new int[HISTORY_SIZE]; // the history heuristic, indexed by packed move
+    private BitboardGameLogic game;
+    private long deadline; // System.nanoTime() at which the search stops
+    private boolean stopped; // the running search has run out of time or nodes, or was asked to stop
+    private volatile boolean stopRequested; // set by stop, cleared only by clearStop
+    private long nodes;
+    private long nodeLimit = Long.MAX_VALUE; // the search stops after about this many nodes
+    private int rootBest; // the best root move of the running iteration
+    private int bestMove;
+    private int bestScore;
+    private int completedDepth;
+
+    /**
+     * Constructs a new AlphaBetaSearch with the hand-written evaluation.
+     *
+     * @param table the transposition table to use, possibly shared with other searches
+     */
+    public AlphaBetaSearch(TranspositionTable table) {
+        this(table, Evaluator.HEURISTIC);
+    }
+
+    /**
+     * Constructs a new AlphaBetaSearch.
+     *
+     * @param table     the transposition table to use, possibly shared with other searches
+     * @param evaluator the evaluation of the positions at the search horizon
+     */
+    public AlphaBetaSearch(TranspositionTable table, Evaluator evaluator) {
+        this.table = table;
+        this.evaluator = evaluator;
+    }
+
+    /**
+     * Searches a position until the time budget runs out or the maximum depth is reached.
+     * The game is used for make/unmake during the search and is in the same state again when this returns.
+     * Callers start a new search of the table (TranspositionTable.newSearch) before each move.
+     *
+     * @param game             the position to search
+     * @param timeBudgetMillis the time budget in milliseconds
+     * @param maxDepth         the maximum depth in plies
+     * @return the best packed move found, or NO_MOVE if the player to move has no valid move
+     */
+    public int search(BitboardGameLogic game, long timeBudgetMillis, int maxDepth) {
+        return search(game, timeBudgetMillis, maxDepth, 1);
+    }
+
+    /**
+     * Searches a position like search(game, timeBudgetMillis, maxDepth), but starts deepening at firstDepth.
+     * Parallel helper searches start one ply deeper than the main search, so that they fill the shared table
+     * ahead of it instead of repeating its work.
+     *
+     * @param game             the position to search
+     * @param timeBudgetMillis the time budget in milliseconds
+     * @param maxDepth         the maximum depth in plies
+     * @param firstDepth       the depth of the first iteration
+     * @return the best packed move found, or NO_MOVE if the player to move has no valid move
+     */
+    public int search(BitboardGameLogic game, long timeBudgetMillis, int maxDepth, int firstDepth) {
+        this.game = game;
+        deadline = System.nanoTime() + Math.min(timeBudgetMillis, MAX_BUDGET_MILLIS) * 1_000_000L;
+        stopped = stopRequested; // a stop that arrived before the search started still counts
+        nodes = 0;
+        completedDepth = 0;
+        bestScore = 0;
+        Arrays.fill(history, 0);
+        int count = game.generateMoves(moveBuffers[0]);
+        if (count == 0) {
+            bestMove = NO_MOVE;
+            return NO_MOVE;
+        }
+        bestMove = moveBuffers[0][0]; // a legal move even if the first iteration is cut short
+        int empties = MAX_PLY - Long.bitCount(game.getDiscMask(true) | game.getDiscMask(false));
+        int depthLimit = Math.min(maxDepth, empties);
+        for (int depth = Math.min(firstDepth, depthLimit); depth <= depthLimit && !stopRequested; depth++) {
+            int score = completedDepth == 0 ? negamax(depth, -INFINITY, INFINITY, 0) : aspirationSearch(depth);
+            if (stopped) {
+                break;
+            }
+            bestScore = score;
+            bestMove = rootBest;
+            completedDepth = depth;
+        }
+        return bestMove;
+    }
+
+    /**
+     * Limits the nodes of every following search, in addition to its time budget. A node budget makes a search
+     * independent of the speed of the machine, as batch analysis needs.
+     *
+     * @param nodeLimit the node budget, checked every CLOCK_INTERVAL + 1 nodes; Long.MAX_VALUE for none
+     */
+    public void setNodeLimit(long nodeLimit) {
+        this.nodeLimit = nodeLimit;
+    }
+
+    /**
+     * Stops a running search as soon as possible; search then returns the best move of the last completed depth.
+     * The request also stops a search that has not started yet, and every later one, until clearStop is called.
+     * This is the only method that may be called from another thread.
+     */
+    public void stop() {
+        stopRequested = true;
+    }
+
+    /**
+     * Withdraws a stop, so that the next search runs. Callers that stop a search from another thread call this
+     * before they hand the search to that thread again, never while it may be running.
+     */
+    public void clearStop() {
+        stopRequested = false;
+    }
+
+    /**
+     * Returns the score of the last search, from the point of view of the player who was to move.
+     *
+     * @return the score of the last completed depth
+     */
+    public int getBestScore() {
+        return bestScore;
+    }
+
+    /**
+     * Returns the depth of the last completed iteration of the last search.
+     *
+     * @return the completed depth in plies
+     */
+    public int getCompletedDepth() {
+        return completedDepth;
+    }
+
+    /**
+     * Returns the number of positions visited by the last search.
+     *
+     * @return the node count
+     */
+    public long getNodes() {
+        return nodes;
+    }
+
+    /**
+     * Searches one depth with a narrow window around the previous score, widening the side that fails.
+     */
+    private int aspirationSearch(int depth) {
+        int alpha = bestScore - ASPIRATION_WINDOW;
+        int beta = bestScore + ASPIRATION_WINDOW;
+        while (true) {
+            int score = negamax(depth, alpha, beta, 0);
+            if (stopped) {
+                return score;
+            }
+            if (score <= alpha) {
+                alpha = -INFINITY;
+            } else if (score >= beta) {
+                beta = INFINITY;
+            } else {
+                return score;
+            }
+        }
+    }
+
+    /**
+     * The negamax principal variation search.
+     *
+     * @return the score of the position for the player to move, or 0 if the search was stopped
+     */
+    private int negamax(int depth, int alpha, int beta, int ply) {
+        if ((++nodes & CLOCK_INTERVAL) == 0
+                && (stopRequested || nodes >= nodeLimit || System.nanoTime() >= deadline)) {
+            stopped = true;
+        }
+        if (stopped) {
+            return 0;
+        }
+        if (game.validMoveMask() == 0) {
+            return finalScore(game);
+        }
+        if (depth == 0) {
+            return evaluator.evaluate(game);
+        }
+
+        long key = game.getHash();
+        int ttMove = TranspositionTable.NO_MOVE;
+        long entry = table.probe(key);
+        if (entry != TranspositionTable.MISS) {
+            ttMove = TranspositionTable.move(entry);
+            if (ply > 0 && TranspositionTable.depth(entry) >= depth) {
+                int score = TranspositionTable.score(entry);
+                int bound = TranspositionTable.bound(entry);
+                if (bound == TranspositionTable.EXACT
+                        || (bound == TranspositionTable.LOWER_BOUND && score >= beta)
+                        || (bound == TranspositionTable.UPPER_BOUND && score <= alpha)) {
+                    return score;
+                }
+            }
+        }
+
+        int[] moves = moveBuffers[ply];
+        int[] order = orderBuffers[ply];
+        int count = game.generateMoves(moves);
+        for (int i = 0; i < count; i++) {
+            order[i] = moves[i] == ttMove ? Integer.MAX_VALUE
+                    : history[moves[i]] + SQUARE_WEIGHTS[PackedMove.square(moves[i])];
+        }
+
+        int originalAlpha = alpha;
+        int best = -INFINITY;
+        int bestHere = moves[0];
+        for (int i = 0; i < count; i++) {
+            int move = nextMove(moves, order, i, count);
+            game.makeMove(move);
+            int score;
+            if (i == 0) {
+                score = -negamax(depth - 1, -beta, -alpha, ply + 1);
+            } else {
+                score = -negamax(depth - 1, -alpha - 1, -alpha, ply + 1);
+                if (score > alpha && score < beta) {
+                    score = -negamax(depth - 1, -beta, -alpha, ply + 1); // re-search the new principal variation
+                }
+            }
+            game.unmakeMove();
+            if (stopped) {
+                return 0;
+            }
+            if (score > best) {
+                best = score;
+                bestHere = move;
+                if (ply == 0) {
+                    rootBest = move;
+                }
+                if (score > alpha) {
+                    alpha = score;
+                    if (alpha >= beta) {
+                        history[move] += depth * depth;
+                        break;
+                    }
+                }
+            }
+        }
+
+        int bound = best <= originalAlpha ? TranspositionTable.UPPER_BOUND
+                : best >= beta ? TranspositionTable.LOWER_BOUND : TranspositionTable.EXACT;
+        table.store(key, bestHere, best, depth, bound);
+        return best;
+    }
+
+    /**
+     * Moves the best remaining move (by ordering score) to index i and returns it; a lazy selection sort,
+     * since most nodes are cut off after their first few moves.
+     */
+    private static int nextMove(int[] moves, int[] order, int i, int count) {
+        int best = i;
+        for (int j = i + 1; j < count; j++) {
+            if (order[j] > order[best]) {
+                best = j;
+            }
+        }
+        int move = moves[best];
+        moves[best] = moves[i];
+        moves[i] = move;
+        int score = order[best];
+        order[best] = order[i];
+        order[i] = score;
+        return move;
+    }
+
+    /**
+     * Scores a finished game for the player to move, as GameLogic decides it: the player with more discs wins
+     * and a tie is won by the first player.
+     *
+     * @param game a game in which the player to move has no valid move
+     * @return WIN plus the disc difference for a win, -WIN plus the disc difference for a loss
+     */
+    public static int finalScore(BitboardGameLogic game) {
+        boolean first = game.isFirstPlayerTurn();
+        int difference = game.getDiscCount(first) - game.getDiscCount(!first);
+        boolean won = difference > 0 || (difference == 0 && first);
+        return won ? WIN + difference : -WIN + difference;
+    }
+
+    /**
+     * Evaluates a position for the player to move with square weights, mobility, unflippable discs
+     * and the special discs left in hand.
+     *
+     * @param game the position to evaluate
+     * @return the score of the position, positive when the player to move is ahead
+     */
+    public static int evaluate(BitboardGameLogic game) {
+        boolean first = game.isFirstPlayerTurn();
+        long own = game.getDiscMask(first);
+        long opponent = game.getDiscMask(!first);
+        long unflippable = game.getUnflippableMask();
+        int score = squareWeights(own) - squareWeights(opponent);
+        score += MOBILITY_WEIGHT * (Long.bitCount(game.validMoveMask(first))
+                - Long.bitCount(game.validMoveMask(!first)));
+        score += UNFLIPPABLE_WEIGHT * (Long.bitCount(own & unflippable) - Long.bitCount(opponent & unflippable));
+        score += BOMB_LEFT_WEIGHT * (game.getBombsLeft(first) - game.getBombsLeft(!first));
+        score += UNFLIPPABLE_LEFT_WEIGHT * (game.getUnflippablesLeft(first) - game.getUnflippablesLeft(!first));
+        return score;
+    }
+
+    private static int squareWeights(long discs) {
+        int sum = 0;
+        for (long rest = discs; rest != 0; rest &= rest - 1) {
+            sum += SQUARE_WEIGHTS[Long.numberOfTrailingZeros(rest)];
+        }
+        return sum;
+    }
+}
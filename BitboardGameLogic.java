@@ -0,0 +1,789 @@
+import java.util.List;
+
+
+/**
+ * The BitboardGameLogic class is an alternative PlayableLogic backend that follows exactly the same rules as
+ * GameLogic, but keeps the board in 64-bit masks instead of a Disc[][] array.
+ * Square (row, col) is stored in bit row * 8 + col. The discs of each player and the bomb and unflippable
+ * discs are kept in separate masks, so rays, flips and bomb cascades are computed with bit operations
+ * and without allocating any objects.
+ * Besides the PlayableLogic methods, it offers a make/unmake API over packed moves (see PackedMove) that
+ * search code can call millions of times without creating garbage.
+ */
+
+public class BitboardGameLogic implements PlayableLogic {
+    private Player player1;
+    private Player player2;
+    private long firstDiscs; // the discs of player1
+    private long secondDiscs; // the discs of player2
+    private long bombDiscs; // the bomb discs of both players
+    private long unflippableDiscs; // the unflippable discs of both players
+    private final int[] bombsLeft = new int[2]; // the bombs left to player1 and player2
+    private final int[] unflippablesLeft = new int[2]; // the unflippable discs left to player1 and player2
+    private static final int BOARD_SIZE = 8; // the normal size of the board
+    private static final int MAX_MOVES = BOARD_SIZE * BOARD_SIZE; // every move fills one square
+    private final int[] moveStack = new int[MAX_MOVES]; // the packed moves played so far
+    private final long[] flipStack = new long[MAX_MOVES]; // the discs flipped by every move in moveStack
+    private final long[] hashStack = new long[MAX_MOVES]; // the hash before every move in moveStack
+    private long hash; // the Zobrist hash of the current state, see Zobrist
+    private int ply; // the number of moves in moveStack
+    private final long[][] mobility = new long[2][MAX_MOVES + 1]; // the valid moves of each player after every ply
+    private final boolean[][] mobilityKnown = new boolean[2][MAX_MOVES + 1]; // which entries of mobility are computed
+    private boolean winRecorded; // true once isGameFinished has added the win of the finished game
+    private boolean isFirst = true; // Indicates if it's the first player's turn
+    private GameEventListener listener = GameEventListener.NONE; // receives the events of the game
+
+    /**
+     * Constructs a new BitboardGameLogic instance with an empty board and history.
+     * The game reports no events; see setEventListener.
+     */
+    public BitboardGameLogic() {
+    }
+
+    /**
+     * Creates a BitboardGameLogic with the same players, board, turn and special disc counts as another game.
+     * The copy starts with an empty move history, so search code can make and unmake moves on it
+     * without touching the original game or the players.
+     *
+     * @param game the game to copy
+     * @return a new game in the same state
+     */
+    public static BitboardGameLogic copyOf(PlayableLogic game) {
+        BitboardGameLogic copy = new BitboardGameLogic();
+        copy.setPlayers(game.getFirstPlayer(), game.getSecondPlayer());
+        copy.isFirst = game.isFirstPlayerTurn();
+        if (game instanceof BitboardGameLogic other) {
+            copy.firstDiscs = other.firstDiscs;
+            copy.secondDiscs = other.secondDiscs;
+            copy.bombDiscs = other.bombDiscs;
+            copy.unflippableDiscs = other.unflippableDiscs;
+            System.arraycopy(other.bombsLeft, 0, copy.bombsLeft, 0, 2);
+            System.arraycopy(other.unflippablesLeft, 0, copy.unflippablesLeft, 0, 2);
+            copy.hash = other.hash;
+            return copy;
+        }
+        for (int square = 0; square < MAX_MOVES; square++) {
+            Disc disc = game.getDiscAtPosition(new Position(square / BOARD_SIZE, square % BOARD_SIZE));
+            if (disc == null) {
+                continue;
+            }
+            long bit = 1L << square;
+            if (disc.getOwner() == copy.player1) {
+                copy.firstDiscs |= bit;
+            } else {
+                copy.secondDiscs |= bit;
+            }
+            int type = PackedMove.typeOf(disc);
+            if (type == PackedMove.BOMB) {
+                copy.bombDiscs |= bit;
+            } else if (type == PackedMove.UNFLIPPABLE) {
+                copy.unflippableDiscs |= bit;
+            }
+        }
+        copy.syncInventory();
+        copy.hash = copy.computeHash();
+        return copy;
+    }
+
+    /**
+     * Replaces the state with the given one and clears the move history, so that stored positions can be searched
+     * without replaying their games. The players are not changed, and their special disc counts are only read
+     * again by locate_disc and reset.
+     *
+     * @param firstDiscs             the discs of player1
+     * @param secondDiscs            the discs of player2
+     * @param bombDiscs              the bomb discs of both players
+     * @param unflippableDiscs       the unflippable discs of both players
+     * @param firstBombsLeft         the bombs left to player1
+     * @param secondBombsLeft        the bombs left to player2
+     * @param firstUnflippablesLeft  the unflippable discs left to player1
+     * @param secondUnflippablesLeft the unflippable discs left to player2
+     * @param firstToMove            true if player1 is to move
+     */
+    public void setState(long firstDiscs, long secondDiscs, long bombDiscs, long unflippableDiscs,
+                         int firstBombsLeft, int secondBombsLeft, int firstUnflippablesLeft,
+                         int secondUnflippablesLeft, boolean firstToMove) {
+        this.firstDiscs = firstDiscs;
+        this.secondDiscs = secondDiscs;
+        this.bombDiscs = bombDiscs;
+        this.unflippableDiscs = unflippableDiscs;
+        bombsLeft[0] = firstBombsLeft;
+        bombsLeft[1] = secondBombsLeft;
+        unflippablesLeft[0] = firstUnflippablesLeft;
+        unflippablesLeft[1] = secondUnflippablesLeft;
+        isFirst = firstToMove;
+        ply = 0;
+        mobilityKnown[0][0] = false;
+        mobilityKnown[1][0] = false;
+        winRecorded = false;
+        hash = computeHash();
+    }
+
+    /**
+     * Places a disc at the specified position if the move is valid.
+     *
+     * @param a the position to place the disc.
+     * @param disc the disc to be placed.
+     * @return true if the move is successful, false otherwise.
+     */
+    @Override
+    public boolean locate_disc(Position a, Disc disc) {
+        Player currentPlayer = isFirstPlayerTurn() ? player1 : player2;
+        if (!isMoveValid(a) || disc == null || disc.getOwner() == null) {
+            return false;
+        }
+        syncInventory();
+        int type = PackedMove.typeOf(disc);
+        if (type == PackedMove.BOMB) {
+            if (currentPlayer.getNumber_of_bombs() <= 0) {
+                return false;
+            }
+            currentPlayer.reduce_bomb();
+        } else if (type == PackedMove.UNFLIPPABLE) {
+            if (currentPlayer.getNumber_of_unflippedable() <= 0) {
+                return false;
+            }
+            currentPlayer.reduce_unflippedable();
+        }
+
+        int playerNumber = isFirst ? 1 : 2;
+        long flipped = makeMove(PackedMove.of(a.row() * BOARD_SIZE + a.col(), type));
+        if (listener != GameEventListener.NONE) {
+            listener.discPlaced(currentPlayer.isPlayerOne() ? 1 : 2, disc.getType(), a.row(), a.col());
+            for (long rest = flipped; rest != 0; rest &= rest - 1) {
+                int square = Long.numberOfTrailingZeros(rest);
+                listener.discFlipped(playerNumber, typeOf(1L << square), square / BOARD_SIZE, square % BOARD_SIZE);
+            }
+            listener.moveFinished();
+        }
+        return true;
+    }
+
+    /**
+     * Returns the disc located at the specified position.
+     * The board keeps no Disc objects, so a new disc with the type and owner of the square is returned;
+     * changing it does not change the board.
+     *
+     * @param position the position to check.
+     * @return the disc at the given position or null if the position is empty.
+     */
+    @Override
+    public Disc getDiscAtPosition(Position position) {
+        long bit = 1L << (position.row() * BOARD_SIZE + position.col());
+        if ((firstDiscs & bit) != 0) {
+            return newDisc(bit, player1);
+        }
+        if ((secondDiscs & bit) != 0) {
+            return newDisc(bit, player2);
+        }
+        return null;
+    }
+
+    /**
+     * Returns the size of the board.
+     *
+     * @return the size of the board (e.g., 8 for a 8x8 board).
+     */
+    @Override
+    public int getBoardSize() {
+        return BOARD_SIZE;
+    }
+
+    /**
+     * Returns a list of all valid moves for the current player.
+     *
+     * @return a list of valid positions where the current player can place a disc.
+     */
+    @Override
+    public List<Position> ValidMoves() {
+        return MoveGenerator.toPositions(validMoveMask());
+    }
+
+    /**
+     * Returns the valid moves of the current player as a mask, with bit row * 8 + col set for every valid square.
+     *
+     * @return the mask of the squares where the current player can place a disc.
+     */
+    public long validMoveMask() {
+        return validMoveMask(isFirst);
+    }
+
+    /**
+     * Returns the squares where a player could place a disc if it were their turn.
+     * The result is computed once per player and position: it is kept for every ply of the move history,
+     * so it is still known after unmakeMove.
+     *
+     * @param firstPlayer true for the first player, false for the second one
+     * @return the mask of the valid squares of the player
+     */
+    public long validMoveMask(boolean firstPlayer) {
+        int side = firstPlayer ? 0 : 1;
+        if (!mobilityKnown[side][ply]) {
+            mobility[side][ply] = firstPlayer
+                    ? MoveGenerator.validMoves(firstDiscs, secondDiscs, unflippableDiscs)
+                    : MoveGenerator.validMoves(secondDiscs, firstDiscs, unflippableDiscs);
+            mobilityKnown[side][ply] = true;
+        }
+        return mobility[side][ply];
+    }
+
+    /**
+     * Fills the given buffer with every legal packed move of the current player.
+     * Each valid square is listed with a SimpleDisc, and also with a BombDisc or an UnflippableDisc
+     * while the player has one left.
+     *
+     * @param moves the buffer to fill; 3 * 64 entries are always enough
+     * @return the number of moves written to the buffer
+     */
+    public int generateMoves(int[] moves) {
+        int side = isFirst ? 0 : 1;
+        int count = 0;
+        for (long rest = validMoveMask(); rest != 0; rest &= rest - 1) {
+            int square = Long.numberOfTrailingZeros(rest);
+            moves[count++] = PackedMove.of(square, PackedMove.SIMPLE);
+            if (bombsLeft[side] > 0) {
+                moves[count++] = PackedMove.of(square, PackedMove.BOMB);
+            }
+            if (unflippablesLeft[side] > 0) {
+                moves[count++] = PackedMove.of(square, PackedMove.UNFLIPPABLE);
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Checks if a packed move is legal for the current player: its square is a valid move
+     * and the player has a disc of its type left.
+     *
+     * @param move the packed move
+     * @return true if the move can be played, false otherwise
+     */
+    public boolean isLegal(int move) {
+        int side = isFirst ? 0 : 1;
+        int type = PackedMove.type(move);
+        if ((type == PackedMove.BOMB && bombsLeft[side] <= 0)
+                || (type == PackedMove.UNFLIPPABLE && unflippablesLeft[side] <= 0)) {
+            return false;
+        }
+        return (validMoveMask() & (1L << PackedMove.square(move))) != 0;
+    }
+
+    /**
+     * Plays a legal packed move of the current player and passes the turn.
+     * The move, the discs it flipped and its disc type are recorded in a preallocated undo buffer,
+     * so the move can be taken back with unmakeMove. The players themselves are not changed.
+     * The hash is updated with one XOR per changed square and special disc count.
+     *
+     * @param move a legal packed move
+     * @return the mask of the discs flipped by the move
+     */
+    public long makeMove(int move) {
+        int square = PackedMove.square(move);
+        int type = PackedMove.type(move);
+        int side = isFirst ? 0 : 1;
+        long bit = 1L << square;
+        hashStack[ply] = hash;
+        switch (type) {
+            case PackedMove.BOMB -> {
+                bombDiscs |= bit;
+                hash ^= Zobrist.bombs(isFirst, bombsLeft[side]) ^ Zobrist.bombs(isFirst, bombsLeft[side] - 1);
+                bombsLeft[side]--;
+            }
+            case PackedMove.UNFLIPPABLE -> {
+                unflippableDiscs |= bit;
+                hash ^= Zobrist.unflippables(isFirst, unflippablesLeft[side])
+                        ^ Zobrist.unflippables(isFirst, unflippablesLeft[side] - 1);
+                unflippablesLeft[side]--;
+            }
+            default -> {
+            }
+        }
+        hash ^= Zobrist.disc(isFirst, type, square) ^ Zobrist.secondPlayerToMove();
+        if (isFirst) {
+            firstDiscs |= bit;
+        } else {
+            secondDiscs |= bit;
+        }
+        long flipped = flipDiscs(square);
+        for (long rest = flipped; rest != 0; rest &= rest - 1) {
+            int flippedSquare = Long.numberOfTrailingZeros(rest);
+            hash ^= Zobrist.flip((bombDiscs & (1L << flippedSquare)) != 0 ? PackedMove.BOMB : PackedMove.SIMPLE,
+                    flippedSquare);
+        }
+        moveStack[ply] = move;
+        flipStack[ply] = flipped;
+        ply++;
+        mobilityKnown[0][ply] = false;
+        mobilityKnown[1][ply] = false;
+        winRecorded = false;
+        isFirst = !isFirst;
+        return flipped;
+    }
+
+    /**
+     * Takes back the last move played with makeMove or locate_disc, in O(1); the hash is restored from the
+     * undo buffer.
+     * Restores the flipped discs, removes the placed disc, gives its type back to the player who used it
+     * and passes the turn back.
+     */
+    public void unmakeMove() {
+        ply--;
+        winRecorded = false;
+        isFirst = !isFirst;
+        int move = moveStack[ply];
+        long flipped = flipStack[ply];
+        hash = hashStack[ply];
+        long bit = 1L << PackedMove.square(move);
+        int side = isFirst ? 0 : 1;
+        firstDiscs = (firstDiscs ^ flipped) & ~bit;
+        secondDiscs = (secondDiscs ^ flipped) & ~bit;
+        bombDiscs &= ~bit;
+        unflippableDiscs &= ~bit;
+        if (PackedMove.type(move) == PackedMove.BOMB) {
+            bombsLeft[side]++;
+        } else if (PackedMove.type(move) == PackedMove.UNFLIPPABLE) {
+            unflippablesLeft[side]++;
+        }
+    }
+
+    /**
+     * Returns the Zobrist hash of the current state: the discs with their owners and types, the player to move
+     * and the BombDisc and UnflippableDisc counts of both players. It is kept up to date by every move.
+     *
+     * @return the 64-bit hash of the state
+     */
+    public long getHash() {
+        return hash;
+    }
+
+    /**
+     * Computes the Zobrist hash of the current state from scratch.
+     *
+     * @return the 64-bit hash of the state, equal to getHash()
+     */
+    public long computeHash() {
+        long key = isFirst ? 0 : Zobrist.secondPlayerToMove();
+        for (long rest = firstDiscs | secondDiscs; rest != 0; rest &= rest - 1) {
+            int square = Long.numberOfTrailingZeros(rest);
+            long bit = 1L << square;
+            int type = (bombDiscs & bit) != 0 ? PackedMove.BOMB
+                    : (unflippableDiscs & bit) != 0 ? PackedMove.UNFLIPPABLE : PackedMove.SIMPLE;
+            key ^= Zobrist.disc((firstDiscs & bit) != 0, type, square);
+        }
+        for (int side = 0; side < 2; side++) {
+            key ^= Zobrist.bombs(side == 0, bombsLeft[side]) ^ Zobrist.unflippables(side == 0, unflippablesLeft[side]);
+        }
+        return key;
+    }
+
+    /**
+     * Returns the number of moves that can be taken back with unmakeMove.
+     *
+     * @return the number of moves played since the last reset or copy
+     */
+    public int getMoveCount() {
+        return ply;
+    }
+
+    /**
+     * Returns the number of BombDiscs a player has left in this game.
+     *
+     * @param firstPlayer true for the first player, false for the second one
+     * @return the number of bombs left
+     */
+    public int getBombsLeft(boolean firstPlayer) {
+        return bombsLeft[firstPlayer ? 0 : 1];
+    }
+
+    /**
+     * Returns the number of UnflippableDiscs a player has left in this game.
+     *
+     * @param firstPlayer true for the first player, false for the second one
+     * @return the number of unflippable discs left
+     */
+    public int getUnflippablesLeft(boolean firstPlayer) {
+        return unflippablesLeft[firstPlayer ? 0 : 1];
+    }
+
+    /**
+     * Returns the discs of a player as a mask, with bit row * 8 + col set for every disc.
+     *
+     * @param firstPlayer true for the first player, false for the second one
+     * @return the mask of the player's discs
+     */
+    public long getDiscMask(boolean firstPlayer) {
+        return firstPlayer ? firstDiscs : secondDiscs;
+    }
+
+    /**
+     * Returns the BombDiscs of both players as a mask.
+     *
+     * @return the mask of the bomb discs
+     */
+    public long getBombMask() {
+        return bombDiscs;
+    }
+
+    /**
+     * Returns the UnflippableDiscs of both players as a mask.
+     *
+     * @return the mask of the unflippable discs
+     */
+    public long getUnflippableMask() {
+        return unflippableDiscs;
+    }
+
+    /**
+     * Counts the number of discs that would be flipped if a disc is placed at the given position.
+     *
+     * @param a the position to check.
+     * @return the number of discs that would be flipped.
+     */
+    @Override
+    public int countFlips(Position a) {
+        return Long.bitCount(flipMask(a.row() * BOARD_SIZE + a.col(), ownDiscs(), opponentDiscs()));
+    }
+
+    /**
+     * Returns the first player in the game.
+     *
+     * @return the first player.
+     */
+    @Override
+    public Player getFirstPlayer() {
+        if (player1.isPlayerOne()) {
+            return player1;
+        }
+        return player2;
+    }
+
+    /**
+     * Returns the second player in the game.
+     *
+     * @return the second player.
+     */
+    @Override
+    public Player getSecondPlayer() {
+        if (player1.isPlayerOne()) {
+            return player2;
+        }
+        return player1;
+    }
+
+    /**
+     * Sets the two players for the game.
+     *
+     * @param player1 the first player.
+     * @param player2 the second player.
+     */
+    @Override
+    public void setPlayers(Player player1, Player player2) {
+        this.player1 = player1;
+        this.player2 = player2;
+    }
+
+    /**
+     * Sets the listener that receives the events of the game.
+     * Pass ConsoleEventLogger.shared() to print the moves like GameLogic does.
+     *
+     * @param listener the new listener
+     */
+    public void setEventListener(GameEventListener listener) {
+        this.listener = listener;
+    }
+
+    /**
+     * Checks if it's the first player's turn.
+     *
+     * @return true if it's the first player's turn, false otherwise.
+     */
+    @Override
+    public boolean isFirstPlayerTurn() {
+        return isFirst;
+    }
+
+    /**
+     * Checks if the game is finished.
+     * Like GameLogic, the game ends when the player to move has no valid move. The first call for a finished
+     * game adds the win to the winner and reports the result; later calls only return true.
+     *
+     * @return true if the game is finished, false otherwise.
+     */
+    @Override
+    public boolean isGameFinished() {
+        if (!isGameOver()) {
+            return false;
+        }
+        if (!winRecorded) {
+            winRecorded = true;
+            int player_1_discs = Long.bitCount(firstDiscs);
+            int player_2_discs = Long.bitCount(secondDiscs);
+            // adding the win to the winning payer
+            if (getWinner() == player1) {
+                player1.addWin();
+                listener.gameOver(1, player_1_discs, player_2_discs);
+            } else {
+                player2.addWin();
+                listener.gameOver(2, player_2_discs, player_1_discs);
+            }
+        }
+        return true; // the game is finished
+    }
+
+    /**
+     * Checks if the game is over, without any side effect: the player to move has no valid move.
+     *
+     * @return true if the game is over, false otherwise.
+     */
+    public boolean isGameOver() {
+        return validMoveMask() == 0;
+    }
+
+    /**
+     * Returns the number of discs a player has on the board, in O(1).
+     *
+     * @param firstPlayer true for the first player, false for the second one
+     * @return the number of discs of the player
+     */
+    public int getDiscCount(boolean firstPlayer) {
+        return Long.bitCount(firstPlayer ? firstDiscs : secondDiscs);
+    }
+
+    /**
+     * Returns the winner of a finished game, without any side effect.
+     * As in isGameFinished, a tie is won by the first player.
+     *
+     * @return the winning player, or null if the game is not over
+     */
+    public Player getWinner() {
+        if (!isGameOver()) {
+            return null;
+        }
+        return Long.bitCount(firstDiscs) >= Long.bitCount(secondDiscs) ? player1 : player2;
+    }
+
+    /**
+     * Resets the game state to its initial configuration.
+     * Clears the board and the move history, resets the BombDisc and UnflippableDisc counts of both players
+     * and places the four starting discs. The first turn is assigned to Player 1.
+     */
+    @Override
+    public void reset() {
+        firstDiscs = 0;
+        secondDiscs = 0;
+        bombDiscs = 0;
+        unflippableDiscs = 0;
+        ply = 0; // Clear the move history
+        mobilityKnown[0][0] = false;
+        mobilityKnown[1][0] = false;
+        winRecorded = false;
+        player1.reset_bombs_and_unflippedable();
+        player2.reset_bombs_and_unflippedable();
+        syncInventory();
+        initializeBoard(); // Re-initialize the board with the starting position
+        isFirst = true; // the first turn is player1
+        hash = computeHash();
+    }
+
+    /**
+     * Undoes the last move in the game if both players are human.
+     * Removes the last placed disc, restores flipped discs to their original owners,
+     * and updates the BombDisc or UnflippableDisc counts if applicable.
+     * Switches the turn back to the previous player.
+     */
+    @Override
+    public void undoLastMove() {
+        if (!(player1 instanceof HumanPlayer) || !(player2 instanceof HumanPlayer)) {
+            return;
+        }
+        if (ply == 0) {
+            listener.undoUnavailable();
+            return;
+        }
+        int lastMove = moveStack[ply - 1];
+        int lastSquare = PackedMove.square(lastMove);
+        listener.moveUndone(typeOf(1L << lastSquare), lastSquare / BOARD_SIZE, lastSquare % BOARD_SIZE);
+        for (long rest = flipStack[ply - 1]; rest != 0; rest &= rest - 1) {
+            int square = Long.numberOfTrailingZeros(rest);
+            listener.discFlippedBack(typeOf(1L << square), square / BOARD_SIZE, square % BOARD_SIZE);
+        }
+        listener.undoFinished();
+
+        unmakeMove();
+
+        // giving the special disc back to the player that used it
+        Player previousPlayer = isFirst ? player1 : player2;
+        if (PackedMove.type(lastMove) == PackedMove.BOMB) {
+            previousPlayer.increase_bomb();
+        } else if (PackedMove.type(lastMove) == PackedMove.UNFLIPPABLE) {
+            previousPlayer.increase_Unflippedable();
+        }
+    }
+
+    /**
+     * Initializes the board to the starting state with two discs for each player.
+     */
+    private void initializeBoard() {
+        if (player1 == null || player2 == null) {
+            return;
+        }
+        int mid = BOARD_SIZE / 2;
+        firstDiscs |= 1L << ((mid - 1) * BOARD_SIZE + mid - 1); // First player's disc at (3,3)
+        firstDiscs |= 1L << (mid * BOARD_SIZE + mid); // First player's disc at (4,4)
+        secondDiscs |= 1L << ((mid - 1) * BOARD_SIZE + mid); // Second player's disc at (3,4)
+        secondDiscs |= 1L << (mid * BOARD_SIZE + mid - 1); // Second player's disc at (4,3)
+    }
+
+    /**
+     * Checks if a move at the specified position is valid.
+     * A move is valid if the position is empty, within bounds, and flips at least one opponent disc.
+     *
+     * @param pos the position to check
+     * @return true if the move is valid, false otherwise
+     */
+    private boolean isMoveValid(Position pos) {
+        if (!isInBounds(pos.row(), pos.col())) {
+            return false;
+        }
+        return (validMoveMask() & (1L << (pos.row() * BOARD_SIZE + pos.col()))) != 0;
+    }
+
+    /**
+     * Flips the discs captured by a disc placed on the given square.
+     * Like GameLogic, every direction is resolved on the board left by the previous directions,
+     * so discs turned over by a bomb in one direction can close a line in the next one.
+     *
+     * @param square the square of the newly placed disc
+     * @return the mask of all the discs flipped by the move
+     */
+    private long flipDiscs(int square) {
+        long allFlipped = 0;
+        for (int direction = 0; direction < RayTables.DIRECTION_COUNT; direction++) {
+            long own = ownDiscs();
+            long opponent = opponentDiscs();
+            long flipped = directionFlips(square, direction, own, opponent);
+            if (flipped == 0) {
+                continue;
+            }
+            flipped = BombCascade.resolve(flipped, bombDiscs, opponent & ~unflippableDiscs);
+            if (isFirst) {
+                firstDiscs |= flipped;
+                secondDiscs &= ~flipped;
+            } else {
+                secondDiscs |= flipped;
+                firstDiscs &= ~flipped;
+            }
+            allFlipped |= flipped;
+        }
+        return allFlipped;
+    }
+
+    /**
+     * Computes the mask of the discs that a disc placed on the given square would flip, bomb effects included.
+     *
+     * @param square   the square to check
+     * @param own      the discs of the player to move
+     * @param opponent the discs of the other player
+     * @return the mask of the discs that would be flipped
+     */
+    private long flipMask(int square, long own, long opponent) {
+        long flips = 0;
+        for (int direction = 0; direction < RayTables.DIRECTION_COUNT; direction++) {
+            flips |= directionFlips(square, direction, own, opponent);
+        }
+        return flips == 0 ? 0 : BombCascade.resolve(flips, bombDiscs, opponent & ~unflippableDiscs);
+    }
+
+    /**
+     * Finds the line of opponent discs from the given square in one direction, using the precomputed rays.
+     * The line counts only if it is closed by a disc of the player to move; unflippable discs are passed over
+     * but never flipped.
+     *
+     * @param square    the starting square
+     * @param direction the index of the direction in RayTables
+     * @param own       the discs of the player to move
+     * @param opponent  the discs of the other player
+     * @return the mask of the flippable discs on the line, or 0 if the line is not closed
+     */
+    private long directionFlips(int square, int direction, long own, long opponent) {
+        int end = RayTables.firstIn(square, direction, ~opponent);
+        if (end < 0 || (own & (1L << end)) == 0) {
+            return 0; // Reset flips if not bounded by the player's piece
+        }
+        long line = RayTables.mask(square, direction) & ~RayTables.mask(end, direction) & ~(1L << end);
+        return line & ~unflippableDiscs;
+    }
+
+    /**
+     * Creates a disc with the type of the given square.
+     *
+     * @param bit   the mask of the square
+     * @param owner the owner of the disc
+     * @return a new disc of the matching type
+     */
+    private Disc newDisc(long bit, Player owner) {
+        if ((bombDiscs & bit) != 0) {
+            return new BombDisc(owner);
+        }
+        if ((unflippableDiscs & bit) != 0) {
+            return new UnflippableDisc(owner);
+        }
+        return new SimpleDisc(owner);
+    }
+
+    /**
+     * Returns the type symbol of the disc on the given square, as returned by Disc.getType().
+     *
+     * @param bit the mask of the square
+     * @return the type symbol of the disc
+     */
+    private String typeOf(long bit) {
+        return (bombDiscs & bit) != 0 ? "💣" : (unflippableDiscs & bit) != 0 ? "⭕" : "⬤";
+    }
+
+    /**
+     * Copies the BombDisc and UnflippableDisc counts of both players into the game,
+     * and rehashes the state if they were changed outside of the game.
+     */
+    private void syncInventory() {
+        if (bombsLeft[0] == player1.getNumber_of_bombs() && bombsLeft[1] == player2.getNumber_of_bombs()
+                && unflippablesLeft[0] == player1.getNumber_of_unflippedable()
+                && unflippablesLeft[1] == player2.getNumber_of_unflippedable()) {
+            return;
+        }
+        bombsLeft[0] = player1.getNumber_of_bombs();
+        bombsLeft[1] = player2.getNumber_of_bombs();
+        unflippablesLeft[0] = player1.getNumber_of_unflippedable();
+        unflippablesLeft[1] = player2.getNumber_of_unflippedable();
+        hash = computeHash();
+    }
+
+    /**
+     * Returns the discs of the player to move.
+     *
+     * @return the mask of the current player's discs
+     */
+    private long ownDiscs() {
+        return isFirst ? firstDiscs : secondDiscs;
+    }
+
+    /**
+     * Returns the discs of the player waiting for their turn.
+     *
+     * @return the mask of the other player's discs
+     */
+    private long opponentDiscs() {
+        return isFirst ? secondDiscs : firstDiscs;
+    }
+
+    /**
+     * Checks if the specified coordinates are within the board's bounds.
+     *
+     * @param x the row coordinate
+     * @param y the column coordinate
+     * @return true if the coordinates are within bounds, false otherwise
+     */
+    private boolean isInBounds(int x, int y) {
+        return x >= 0 && x < BOARD_SIZE && y >= 0 && y < BOARD_SIZE;
+    }
+}
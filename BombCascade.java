@@ -0,0 +1,60 @@
+/**
+ * The BombCascade class resolves BombDisc chain reactions on 64-bit masks (bit row * 8 + col).
+ * When a bomb is flipped, every flippable opponent disc around it is flipped too, and every bomb flipped
+ * this way explodes in turn. The cascade is a flood fill over the precomputed 8-neighbour masks of the
+ * squares: each bomb explodes at most once, so it ends after at most 64 steps, with no recursion
+ * and no allocation.
+ */
+public final class BombCascade {
+    private static final int BOARD_SIZE = 8;
+    private static final long[] NEIGHBOURS = new long[BOARD_SIZE * BOARD_SIZE];
+
+    static {
+        for (int square = 0; square < BOARD_SIZE * BOARD_SIZE; square++) {
+            int row = square / BOARD_SIZE;
+            int col = square % BOARD_SIZE;
+            for (int dr = -1; dr <= 1; dr++) {
+                for (int dc = -1; dc <= 1; dc++) {
+                    int r = row + dr;
+                    int c = col + dc;
+                    if ((dr != 0 || dc != 0) && r >= 0 && r < BOARD_SIZE && c >= 0 && c < BOARD_SIZE) {
+                        NEIGHBOURS[square] |= 1L << (r * BOARD_SIZE + c);
+                    }
+                }
+            }
+        }
+    }
+
+    private BombCascade() {
+    }
+
+    /**
+     * Returns the squares around a square.
+     *
+     * @param square the square (row * 8 + col)
+     * @return the mask of the up to 8 squares surrounding it
+     */
+    public static long neighbours(int square) {
+        return NEIGHBOURS[square];
+    }
+
+    /**
+     * Adds to a set of flipped discs every disc turned over by the bombs among them.
+     *
+     * @param flipped   the discs flipped by the lines of a move
+     * @param bombs     the bomb discs on the board
+     * @param flippable the discs that a bomb may flip: the opponent's discs that are not unflippable
+     * @return the flipped discs together with every disc flipped by the cascade
+     */
+    public static long resolve(long flipped, long bombs, long flippable) {
+        long exploded = 0;
+        long fuse = flipped & bombs; // the flipped bombs that did not explode yet
+        while (fuse != 0) {
+            int bomb = Long.numberOfTrailingZeros(fuse);
+            exploded |= 1L << bomb;
+            flipped |= NEIGHBOURS[bomb] & flippable;
+            fuse = flipped & bombs & ~exploded;
+        }
+        return flipped;
+    }
+}
@@ -0,0 +1,150 @@
+import java.util.ArrayList;
+import java.util.Random;
+
+/**
+ * A small command line benchmark for BombCascade on adversarial, bomb-heavy boards.
+ * For every board it times the mask flood fill of BombCascade against the recursive list-based resolver
+ * that GameLogic used before, and checks that both flip the same discs.
+ * Run with: java BombCascadeBenchmark [iterations]
+ */
+public class BombCascadeBenchmark {
+    private static final int BOARD_SIZE = 8;
+    private static final int[][] DIRECTIONS = {{0, 1}, {0, -1}, {1, 0}, {-1, 0}, {1, 1}, {1, -1}, {-1, 1}, {-1, -1}};
+    private final Player mover = new HumanPlayer(true);
+    private final Player opponent = new HumanPlayer(false);
+    private volatile long start = 1L; // the bomb on (0, 0), read on every iteration so the JIT cannot hoist the cascade
+
+    public static void main(String[] args) {
+        int iterations = args.length > 0 ? Integer.parseInt(args[0]) : 200_000;
+        new BombCascadeBenchmark().run(iterations);
+    }
+
+    /**
+     * Runs the benchmark on every board and prints one line per board.
+     *
+     * @param iterations the number of timed cascades per board and resolver
+     */
+    private void run(int iterations) {
+        Random random = new Random(42); // fixed seed, so the boards are the same on every run
+        String[] names = {"bomb field", "bomb checkerboard", "bomb snake", "random 30%", "random 60%", "random 90%"};
+        long[] bombs = {~1L, 0xAA55AA55AA55AA55L | 1L, snake(), randomBombs(random, 0.3), randomBombs(random, 0.6),
+                randomBombs(random, 0.9)};
+        long[] unflippable = {0, 0, 0, randomBombs(random, 0.05), randomBombs(random, 0.05), randomBombs(random, 0.05)};
+
+        System.out.printf("%-18s %8s %14s %14s%n", "board", "flipped", "mask ns/op", "recursive ns/op");
+        for (int b = 0; b < names.length; b++) {
+            long bombSquares = bombs[b] | 1L; // the cascade starts from the bomb on (0, 0)
+            long unflippableSquares = unflippable[b] & ~bombSquares;
+            long flippable = ~unflippableSquares; // the opponent owns the whole board
+            Disc[][] board = toBoard(bombSquares, unflippableSquares);
+
+            long masked = BombCascade.resolve(1L, bombSquares, flippable);
+            int recursive = recursiveResolve(board);
+            if (Long.bitCount(masked) != recursive) {
+                throw new IllegalStateException("Resolvers disagree on board: " + names[b]);
+            }
+            double maskNanos = timeMask(bombSquares, flippable, iterations);
+            double recursiveNanos = timeRecursive(board, iterations / 10 + 1);
+            System.out.printf("%-18s %8d %14.1f %14.1f%n", names[b], recursive, maskNanos, recursiveNanos);
+        }
+    }
+
+    private double timeMask(long bombs, long flippable, int iterations) {
+        long sink = 0;
+        for (int i = 0; i < iterations; i++) { // warm up
+            sink += BombCascade.resolve(start, bombs, flippable);
+        }
+        long begin = System.nanoTime();
+        for (int i = 0; i < iterations; i++) {
+            sink += BombCascade.resolve(start, bombs, flippable);
+        }
+        long elapsed = System.nanoTime() - begin;
+        consume(sink);
+        return (double) elapsed / iterations;
+    }
+
+    private double timeRecursive(Disc[][] board, int iterations) {
+        long sink = 0;
+        for (int i = 0; i < iterations; i++) { // warm up
+            sink += recursiveResolve(board);
+        }
+        long begin = System.nanoTime();
+        for (int i = 0; i < iterations; i++) {
+            sink += recursiveResolve(board);
+        }
+        long elapsed = System.nanoTime() - begin;
+        consume(sink);
+        return (double) elapsed / iterations;
+    }
+
+    /**
+     * The resolver GameLogic used before BombCascade: recursion over the directions with a list of flipped discs.
+     *
+     * @param board a board owned by the opponent, with a bomb on (0, 0)
+     * @return the number of discs flipped by the bomb on (0, 0)
+     */
+    private int recursiveResolve(Disc[][] board) {
+        ArrayList<Disc> flipped = new ArrayList<>();
+        flipped.add(board[0][0]);
+        recursiveSurroundFlips(board, 0, 0, flipped);
+        return flipped.size();
+    }
+
+    private void recursiveSurroundFlips(Disc[][] board, int bombX, int bombY, ArrayList<Disc> flipped) {
+        for (int[] direction : DIRECTIONS) {
+            int x = bombX + direction[0];
+            int y = bombY + direction[1];
+            if (x >= 0 && x < BOARD_SIZE && y >= 0 && y < BOARD_SIZE && board[x][y] != null
+                    && board[x][y].getOwner() != mover && !(board[x][y] instanceof UnflippableDisc)
+                    && !flipped.contains(board[x][y])) {
+                flipped.add(board[x][y]);
+                if (board[x][y] instanceof BombDisc) {
+                    recursiveSurroundFlips(board, x, y, flipped);
+                }
+            }
+        }
+    }
+
+    private Disc[][] toBoard(long bombs, long unflippable) {
+        Disc[][] board = new Disc[BOARD_SIZE][BOARD_SIZE];
+        for (int square = 0; square < BOARD_SIZE * BOARD_SIZE; square++) {
+            long bit = 1L << square;
+            board[square / BOARD_SIZE][square % BOARD_SIZE] = (bombs & bit) != 0 ? new BombDisc(opponent)
+                    : (unflippable & bit) != 0 ? new UnflippableDisc(opponent) : new SimpleDisc(opponent);
+        }
+        return board;
+    }
+
+    /**
+     * Rows of bombs joined at alternating ends, so the cascade has to wind through the whole board.
+     *
+     * @return the mask of the bombs
+     */
+    private static long snake() {
+        long bombs = 0;
+        for (int row = 0; row < BOARD_SIZE; row += 2) {
+            bombs |= 0xFFL << (row * BOARD_SIZE);
+            if (row + 1 < BOARD_SIZE) {
+                int col = (row / 2) % 2 == 0 ? BOARD_SIZE - 1 : 0;
+                bombs |= 1L << ((row + 1) * BOARD_SIZE + col);
+            }
+        }
+        return bombs;
+    }
+
+    private static long randomBombs(Random random, double density) {
+        long bombs = 0;
+        for (int square = 0; square < BOARD_SIZE * BOARD_SIZE; square++) {
+            if (random.nextDouble() < density) {
+                bombs |= 1L << square;
+            }
+        }
+        return bombs;
+    }
+
+    private static void consume(long sink) {
+        if (sink == 42) {
+            System.out.println(); // keeps the JIT from removing the timed loops
+        }
+    }
+}
@@ -0,0 +1,202 @@
+/**
+ * The ConsoleEventLogger class prints game events to the console in the same format the game logic always used.
+ * Events are stored as plain values in a preallocated ring buffer, and a background daemon thread formats and
+ * writes them in batches, so the thread that plays the moves never formats a string or waits for the console.
+ * The thread only blocks when the buffer is full. If the background thread ever ends, events are dropped
+ * instead of waiting for it.
+ */
+public final class ConsoleEventLogger implements GameEventListener {
+    private static final int CAPACITY = 4096; // the number of events the buffer can hold
+    private static final int PLACED = 0;
+    private static final int FLIPPED = 1;
+    private static final int MOVE_FINISHED = 2;
+    private static final int UNDONE = 3;
+    private static final int FLIPPED_BACK = 4;
+    private static final int UNDO_FINISHED = 5;
+    private static final int UNDO_UNAVAILABLE = 6;
+    private static final int GAME_OVER = 7;
+    private static final String NEWLINE = System.lineSeparator();
+    private static ConsoleEventLogger shared;
+
+    private final int[] kinds = new int[CAPACITY];
+    private final int[] players = new int[CAPACITY];
+    private final int[] rows = new int[CAPACITY];
+    private final int[] cols = new int[CAPACITY];
+    private final String[] types = new String[CAPACITY];
+    private long written; // the number of events added to the buffer
+    private long printed; // the number of events printed by the background thread
+    private boolean printing = true; // false once the background thread has ended
+    private final Object lock = new Object();
+
+    /**
+     * Constructs a new ConsoleEventLogger and starts its background thread.
+     */
+    public ConsoleEventLogger() {
+        Thread printer = new Thread(this::printLoop, "console-event-logger");
+        printer.setDaemon(true);
+        printer.start();
+        Runtime.getRuntime().addShutdownHook(new Thread(this::flush));
+    }
+
+    /**
+     * Returns the logger shared by all the games of the application, creating it on first use.
+     *
+     * @return the shared console logger
+     */
+    public static synchronized ConsoleEventLogger shared() {
+        if (shared == null) {
+            shared = new ConsoleEventLogger();
+        }
+        return shared;
+    }
+
+    @Override
+    public void discPlaced(int player, String type, int row, int col) {
+        add(PLACED, player, type, row, col);
+    }
+
+    @Override
+    public void discFlipped(int player, String type, int row, int col) {
+        add(FLIPPED, player, type, row, col);
+    }
+
+    @Override
+    public void moveFinished() {
+        add(MOVE_FINISHED, 0, null, 0, 0);
+    }
+
+    @Override
+    public void moveUndone(String type, int row, int col) {
+        add(UNDONE, 0, type, row, col);
+    }
+
+    @Override
+    public void discFlippedBack(String type, int row, int col) {
+        add(FLIPPED_BACK, 0, type, row, col);
+    }
+
+    @Override
+    public void undoFinished() {
+        add(UNDO_FINISHED, 0, null, 0, 0);
+    }
+
+    @Override
+    public void undoUnavailable() {
+        add(UNDO_UNAVAILABLE, 0, null, 0, 0);
+    }
+
+    @Override
+    public void gameOver(int winner, int winnerDiscs, int loserDiscs) {
+        add(GAME_OVER, winner, null, winnerDiscs, loserDiscs);
+    }
+
+    /**
+     * Waits until every event added so far has been printed.
+     */
+    public void flush() {
+        synchronized (lock) {
+            long target = written;
+            while (printed < target && printing) {
+                try {
+                    lock.wait();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+            }
+        }
+    }
+
+    /**
+     * Stores an event in the ring buffer, waiting for free space if the buffer is full.
+     */
+    private void add(int kind, int player, String type, int row, int col) {
+        synchronized (lock) {
+            while (written - printed == CAPACITY && printing) {
+                try {
+                    lock.wait();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return; // drop the event rather than block an interrupted game
+                }
+            }
+            if (!printing) {
+                return; // nothing would ever print it
+            }
+            int slot = (int) (written % CAPACITY);
+            kinds[slot] = kind;
+            players[slot] = player;
+            types[slot] = type;
+            rows[slot] = row;
+            cols[slot] = col;
+            written++;
+            lock.notifyAll();
+        }
+    }
+
+    /**
+     * The loop of the background thread: takes every waiting event at once, formats the batch and prints it.
+     * The slots of the batch are not reused before printed is advanced, so they are read without the lock.
+     * When the thread ends, for example because it was interrupted, it releases every waiting add and flush.
+     */
+    private void printLoop() {
+        try {
+            printBatches();
+        } finally {
+            synchronized (lock) {
+                printing = false;
+                lock.notifyAll();
+            }
+        }
+    }
+
+    private void printBatches() {
+        StringBuilder batch = new StringBuilder();
+        while (true) {
+            long from;
+            long to;
+            synchronized (lock) {
+                while (printed == written) {
+                    try {
+                        lock.wait();
+                    } catch (InterruptedException e) {
+                        return;
+                    }
+                }
+                from = printed;
+                to = written;
+            }
+            batch.setLength(0);
+            for (long i = from; i < to; i++) {
+                format(batch, (int) (i % CAPACITY));
+            }
+            System.out.print(batch);
+            System.out.flush();
+            synchronized (lock) {
+                printed = to;
+                lock.notifyAll();
+            }
+        }
+    }
+
+    /**
+     * Appends one event to the batch, in the format of the original console output.
+     */
+    private void format(StringBuilder batch, int slot) {
+        String line = switch (kinds[slot]) {
+            case PLACED -> "Player " + players[slot] + " placed a " + types[slot]
+                    + " in (" + rows[slot] + ", " + cols[slot] + ")" + NEWLINE;
+            case FLIPPED -> String.format("Player %d flipped the %s in (%d, %d)%n",
+                    players[slot], types[slot], rows[slot], cols[slot]);
+            case MOVE_FINISHED, UNDO_FINISHED -> NEWLINE;
+            case UNDONE -> String.format("Undoing last move:%n\tUndo: removing '%s' from (%d, %d)%n",
+                    types[slot], rows[slot], cols[slot]);
+            case FLIPPED_BACK -> String.format("\tUndo: flipping back '%s' in (%d, %d)%n",
+                    types[slot], rows[slot], cols[slot]);
+            case UNDO_UNAVAILABLE -> "\tNo previous move available to undo." + NEWLINE + NEWLINE;
+            default -> String.format("Player %d wins with %d discs! Player %d had %d discs.%n",
+                    players[slot], rows[slot], 3 - players[slot], cols[slot]);
+        };
+        batch.append(line);
+    }
+}
@@ -0,0 +1,258 @@
+/**
+ * The EndgameSolver class plays perfectly in the last moves of a game by searching every line to the end.
+ * It either solves win/loss (a null window search around zero, which is enough to pick a winning move)
+ * or the exact final disc difference. Scores are those of AlphaBetaSearch.finalScore, so a tie is won by the
+ * first player as in GameLogic.
+ * Moves are ordered fastest-first (the move that leaves the opponent the fewest replies comes first) with a
+ * bonus for parity (empty regions with an odd number of squares), and solved positions are kept in a
+ * TranspositionTable of the solver's own.
+ * Bomb and unflippable discs are searched as separate moves while the player has some left, except on the
+ * last empty square, where the type of the disc can no longer change the result.
+ */
+public class EndgameSolver {
+    public static final int DEFAULT_EMPTIES = 12; // the number of empty squares at which players switch to the solver
+    public static final int NO_MOVE = -1; // returned when the player to move has no valid move or time ran out
+    private static final int BOARD_SIZE = 8;
+    private static final int MAX_PLY = BOARD_SIZE * BOARD_SIZE;
+    private static final int MAX_MOVES = 3 * BOARD_SIZE * BOARD_SIZE;
+    public static final long BUFFER_BYTES = 2L * (MAX_PLY + 1) * MAX_MOVES * Integer.BYTES; // the buffers of one solver
+    private static final int ORDERING_EMPTIES = 6; // positions with fewer empty squares are searched unordered
+    private static final int CLOCK_INTERVAL = 1023; // the clock is read once every CLOCK_INTERVAL + 1 nodes
+    private static final long MAX_BUDGET_MILLIS = 86_400_000L; // longer budgets are cut to a day
+    private static final long[] QUADRANTS = {
+            0x000000000F0F0F0FL, 0x00000000F0F0F0F0L, 0x0F0F0F0F00000000L, 0xF0F0F0F000000000L};
+
+    private final TranspositionTable table;
+    private final int[][] moveBuffers = new int[MAX_PLY + 1][MAX_MOVES];
+    private final int[][] orderBuffers = new int[MAX_PLY + 1][MAX_MOVES];
+    private BitboardGameLogic game;
+    private long deadline;
+    private boolean stopped;
+    private long nodes;
+    private int rootBest;
+    private int score;
+    private boolean solved;
+
+    /**
+     * Constructs a new EndgameSolver.
+     *
+     * @param table the transposition table of the solver
+     */
+    public EndgameSolver(TranspositionTable table) {
+        this.table = table;
+    }
+
+    /**
+     * Returns the number of empty squares of a game.
+     *
+     * @param game the game
+     * @return the number of empty squares
+     */
+    public static int empties(BitboardGameLogic game) {
+        return MAX_PLY - Long.bitCount(game.getDiscMask(true) | game.getDiscMask(false));
+    }
+
+    /**
+     * Solves a position to the end of the game.
+     * The game is used for make/unmake during the search and is in the same state again when this returns.
+     *
+     * @param game             the position to solve
+     * @param exact            true to solve the exact disc difference, false to solve only win or loss
+     * @param timeBudgetMillis the time budget in milliseconds
+     * @return the best packed move, or NO_MOVE if the player to move has no valid move or the time ran out; after
+     *         a win/loss solve of a lost position, any move, as the search only proves that every move loses
+     */
+    public int solve(BitboardGameLogic game, boolean exact, long timeBudgetMillis) {
+        this.game = game;
+        deadline = System.nanoTime() + Math.min(timeBudgetMillis, MAX_BUDGET_MILLIS) * 1_000_000L;
+        stopped = false;
+        solved = false;
+        nodes = 0;
+        rootBest = NO_MOVE;
+        table.newSearch();
+        if (game.validMoveMask() == 0) {
+            return NO_MOVE;
+        }
+        int result = exact
+                ? negamax(-AlphaBetaSearch.INFINITY, AlphaBetaSearch.INFINITY, 0)
+                : negamax(-1, 1, 0);
+        if (stopped) {
+            return NO_MOVE;
+        }
+        score = result;
+        solved = true;
+        return rootBest;
+    }
+
+    /**
+     * Checks if the last call to solve finished within its time budget.
+     *
+     * @return true if the last position was solved
+     */
+    public boolean isSolved() {
+        return solved;
+    }
+
+    /**
+     * Returns the score of the last solved position for the player who was to move: above zero for a win and
+     * below zero for a loss. After an exact solve, it is AlphaBetaSearch.WIN plus the disc difference for a win
+     * and -AlphaBetaSearch.WIN plus the disc difference for a loss.
+     *
+     * @return the score of the position
+     */
+    public int getScore() {
+        return score;
+    }
+
+    /**
+     * Returns the final disc difference of the last exact solve, for the player who was to move.
+     *
+     * @return the disc difference with perfect play
+     */
+    public int getDiscDifference() {
+        return score > 0 ? score - AlphaBetaSearch.WIN : score + AlphaBetaSearch.WIN;
+    }
+
+    /**
+     * Returns the number of positions visited by the last solve.
+     *
+     * @return the node count
+     */
+    public long getNodes() {
+        return nodes;
+    }
+
+    /**
+     * The negamax principal variation search to the end of the game.
+     *
+     * @return the score of the position for the player to move, or 0 if the search was stopped
+     */
+    private int negamax(int alpha, int beta, int ply) {
+        if ((++nodes & CLOCK_INTERVAL) == 0 && System.nanoTime() >= deadline) {
+            stopped = true;
+        }
+        if (stopped) {
+            return 0;
+        }
+        if (game.validMoveMask() == 0) {
+            return AlphaBetaSearch.finalScore(game);
+        }
+
+        long key = game.getHash();
+        int ttMove = TranspositionTable.NO_MOVE;
+        long entry = table.probe(key);
+        if (entry != TranspositionTable.MISS) {
+            ttMove = TranspositionTable.move(entry);
+            if (ply > 0) { // every entry of the table is solved to the end of the game
+                int stored = TranspositionTable.score(entry);
+                int bound = TranspositionTable.bound(entry);
+                if (bound == TranspositionTable.EXACT
+                        || (bound == TranspositionTable.LOWER_BOUND && stored >= beta)
+                        || (bound == TranspositionTable.UPPER_BOUND && stored <= alpha)) {
+                    return stored;
+                }
+            }
+        }
+
+        int empties = empties(game);
+        int[] moves = moveBuffers[ply];
+        int count = generate(moves, empties);
+        if (empties > ORDERING_EMPTIES) {
+            order(moves, orderBuffers[ply], count, ttMove);
+        }
+
+        int originalAlpha = alpha;
+        int best = -AlphaBetaSearch.INFINITY;
+        int bestHere = moves[0];
+        for (int i = 0; i < count; i++) {
+            int move = moves[i];
+            game.makeMove(move);
+            int value;
+            if (i == 0) {
+                value = -negamax(-beta, -alpha, ply + 1);
+            } else {
+                value = -negamax(-alpha - 1, -alpha, ply + 1);
+                if (value > alpha && value < beta) {
+                    value = -negamax(-beta, -alpha, ply + 1);
+                }
+            }
+            game.unmakeMove();
+            if (stopped) {
+                return 0;
+            }
+            if (value > best) {
+                best = value;
+                bestHere = move;
+                if (ply == 0) {
+                    rootBest = move;
+                }
+                if (value > alpha) {
+                    alpha = value;
+                    if (alpha >= beta) {
+                        break;
+                    }
+                }
+            }
+        }
+
+        int bound = best <= originalAlpha ? TranspositionTable.UPPER_BOUND
+                : best >= beta ? TranspositionTable.LOWER_BOUND : TranspositionTable.EXACT;
+        table.store(key, bestHere, best, empties, bound);
+        return best;
+    }
+
+    /**
+     * Generates the moves of the player to move. On the last empty square only the SimpleDisc is kept:
+     * the game ends with that move, so the disc type can not matter any more.
+     */
+    private int generate(int[] moves, int empties) {
+        int count = game.generateMoves(moves);
+        if (empties > 1) {
+            return count;
+        }
+        int simple = 0;
+        for (int i = 0; i < count; i++) {
+            if (PackedMove.type(moves[i]) == PackedMove.SIMPLE) {
+                moves[simple++] = moves[i];
+            }
+        }
+        return simple;
+    }
+
+    /**
+     * Sorts the moves: the table move first, then by fewest replies for the opponent, then by parity.
+     */
+    private void order(int[] moves, int[] order, int count, int ttMove) {
+        long empty = ~(game.getDiscMask(true) | game.getDiscMask(false));
+        for (int i = 0; i < count; i++) {
+            int move = moves[i];
+            if (move == ttMove) {
+                order[i] = Integer.MAX_VALUE;
+                continue;
+            }
+            game.makeMove(move);
+            int replies = Long.bitCount(game.validMoveMask());
+            game.unmakeMove();
+            int square = PackedMove.square(move);
+            int parity = 0;
+            for (long quadrant : QUADRANTS) {
+                if ((quadrant & (1L << square)) != 0 && (Long.bitCount(quadrant & empty) & 1) == 1) {
+                    parity = 1;
+                }
+            }
+            order[i] = -replies * 4 + parity;
+        }
+        for (int i = 1; i < count; i++) { // insertion sort, the lists are short
+            int move = moves[i];
+            int key = order[i];
+            int j = i - 1;
+            while (j >= 0 && order[j] < key) {
+                moves[j + 1] = moves[j];
+                order[j + 1] = order[j];
+                j--;
+            }
+            moves[j + 1] = move;
+            order[j + 1] = key;
+        }
+    }
+}
@@ -0,0 +1,20 @@
+/**
+ * The Evaluator interface scores positions for the search players.
+ * Implementations must be thread-safe, since parallel searches share one evaluator.
+ */
+public interface Evaluator {
+
+    /**
+     * The hand-written evaluation of AlphaBetaSearch: square weights, mobility and special discs.
+     */
+    Evaluator HEURISTIC = AlphaBetaSearch::evaluate;
+
+    /**
+     * Evaluates a position that is not finished.
+     *
+     * @param game the position to evaluate
+     * @return the score of the position, positive when the player to move is ahead;
+     *         well inside (-AlphaBetaSearch.WIN, AlphaBetaSearch.WIN)
+     */
+    int evaluate(BitboardGameLogic game);
+}
@@ -0,0 +1,248 @@
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Annotates the games of a GameRecordWriter archive with engine evaluations, without the GUI.
+ * Every position of every game is searched with AlphaBetaSearch to a fixed depth, optionally cut by a node
+ * budget so that the result does not depend on the machine. The played move is scored by searching its
+ * position one ply shallower; a move that loses more than the blunder threshold against the best move is
+ * flagged.
+ * The games are analysed on a thread pool, each thread with its own search and table, cleared for every game so
+ * that a game always gets the same analysis. They are written in archive order: the reading thread keeps a
+ * bounded window of games in flight and writes the oldest as soon as it is done. About once a second the output
+ * is forced to disk and a progress file next to it records the games and bytes written, so a restarted run
+ * truncates any partial game and continues after the last checkpoint.
+ * <p>
+ * Output: a tab-separated text file. Every game starts with a line "game", its index in the archive, the two
+ * player types and the final disc counts, followed by one line per move: the ply, the player (1 or 2), the
+ * played packed move and its score, the best packed move and its score, the loss, the completed search depth
+ * and BLUNDER or "-". Scores are for the player who moves.
+ * Run with: java GameAnalyzer [archive] [output] [depth] [node budget, 0 for none] [threads] [blunder threshold]
+ */
+public class GameAnalyzer {
+    private static final int TABLE_MEGABYTES = 16; // per thread
+    private static final int GAMES_PER_THREAD = 4; // the games in flight per thread
+    private static final long CHECKPOINT_NANOS = 1_000_000_000L;
+    private static final long NO_TIME_LIMIT = Long.MAX_VALUE; // searches end by depth or node budget only
+
+    private final int depth;
+    private final long nodeLimit;
+    private final int blunderThreshold;
+    private final ThreadLocal<Analyst> analysts = ThreadLocal.withInitial(Analyst::new);
+    private long blunders; // only updated by the writing thread
+
+    /**
+     * A search with its own table, reused by every game of one thread.
+     */
+    private final class Analyst {
+        final TranspositionTable table = new TranspositionTable(TABLE_MEGABYTES);
+        final AlphaBetaSearch search = new AlphaBetaSearch(table);
+
+        Analyst() {
+            search.setNodeLimit(nodeLimit);
+        }
+    }
+
+    /**
+     * A game copied out of the archive reader, so that it can be analysed on another thread.
+     */
+    private record ArchivedGame(long index, String firstType, String secondType, int firstDiscs, int secondDiscs,
+                                int[] moves) {
+    }
+
+    /**
+     * The output lines of one game and the number of blunders in it.
+     */
+    private record Analysis(String lines, int blunders) {
+    }
+
+    /**
+     * Constructs a new GameAnalyzer.
+     *
+     * @param depth            the search depth of every position, at least 2
+     * @param nodeLimit        the node budget of every search, or Long.MAX_VALUE for none
+     * @param blunderThreshold the loss against the best move from which a move is a blunder
+     */
+    public GameAnalyzer(int depth, long nodeLimit, int blunderThreshold) {
+        this.depth = Math.max(2, depth);
+        this.nodeLimit = nodeLimit;
+        this.blunderThreshold = blunderThreshold;
+    }
+
+    public static void main(String[] args) throws IOException, InterruptedException {
+        Path archive = Path.of(args.length > 0 ? args[0] : "games.archive");
+        Path output = Path.of(args.length > 1 ? args[1] : "analysis.tsv");
+        int depth = args.length > 2 ? Integer.parseInt(args[2]) : 8;
+        long nodeBudget = args.length > 3 ? Long.parseLong(args[3]) : 0;
+        int threads = args.length > 4 ? Integer.parseInt(args[4]) : Runtime.getRuntime().availableProcessors();
+        int threshold = args.length > 5 ? Integer.parseInt(args[5]) : 150;
+        GameAnalyzer analyzer = new GameAnalyzer(depth, nodeBudget > 0 ? nodeBudget : Long.MAX_VALUE, threshold);
+        long begin = System.nanoTime();
+        long[] games = analyzer.run(archive, output, threads);
+        double seconds = (System.nanoTime() - begin) / 1e9;
+        System.out.printf("%d games analysed in %.1f s (%.1f games/s), %d skipped as done, %d blunders%n",
+                games[0], seconds, games[0] / seconds, games[1], analyzer.blunders);
+    }
+
+    /**
+     * Analyses every game of an archive that the output does not hold yet.
+     *
+     * @param archive the archive to read
+     * @param output  the output file; its progress file is output with ".progress" appended
+     * @param threads the number of analysing threads
+     * @return the number of games analysed by this run and the number skipped as already done
+     * @throws IOException          if a file can not be read or written
+     * @throws InterruptedException if the thread is interrupted while waiting for the analysis
+     */
+    public long[] run(Path archive, Path output, int threads) throws IOException, InterruptedException {
+        Path progress = output.resolveSibling(output.getFileName() + ".progress");
+        long done = 0;
+        long bytes = 0;
+        if (Files.exists(progress) && Files.exists(output)) {
+            String[] saved = Files.readString(progress).trim().split(" ");
+            done = Long.parseLong(saved[0]);
+            bytes = Long.parseLong(saved[1]);
+        }
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        try (FileChannel out = FileChannel.open(output, StandardOpenOption.CREATE, StandardOpenOption.WRITE);
+             GameRecordReader reader = new GameRecordReader(FileChannel.open(archive, StandardOpenOption.READ))) {
+            out.truncate(bytes); // drops the games after the last checkpoint, or everything on a fresh run
+            out.position(bytes);
+            for (long skipped = 0; skipped < done; skipped++) {
+                if (!reader.next()) {
+                    throw new IOException("The archive holds fewer games than the progress file of " + output);
+                }
+            }
+
+            Deque<Future<Analysis>> inFlight = new ArrayDeque<>();
+            long written = done;
+            long lastCheckpoint = System.nanoTime();
+            for (long index = done; reader.next(); index++) {
+                int[] moves = new int[reader.getMoveCount()];
+                for (int i = 0; i < moves.length; i++) {
+                    moves[i] = reader.getMove(i);
+                }
+                ArchivedGame game = new ArchivedGame(index, reader.getFirstType(), reader.getSecondType(),
+                        reader.getFirstDiscs(), reader.getSecondDiscs(), moves);
+                inFlight.add(pool.submit(() -> analyse(game)));
+                int window = threads * GAMES_PER_THREAD;
+                while (inFlight.size() >= window || (!inFlight.isEmpty() && inFlight.peek().isDone())) {
+                    write(out, take(inFlight));
+                    written++;
+                }
+                if (System.nanoTime() - lastCheckpoint >= CHECKPOINT_NANOS) {
+                    checkpoint(out, progress, written);
+                    lastCheckpoint = System.nanoTime();
+                }
+            }
+            while (!inFlight.isEmpty()) {
+                write(out, take(inFlight));
+                written++;
+            }
+            checkpoint(out, progress, written);
+            return new long[]{written - done, done};
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    /**
+     * Searches every position of a game and formats its lines.
+     *
+     * @return the lines of the game and its blunders
+     */
+    private Analysis analyse(ArchivedGame archived) {
+        Analyst analyst = analysts.get();
+        analyst.table.clear(); // so that the result does not depend on the games the thread analysed before
+        BitboardGameLogic game = new BitboardGameLogic();
+        game.setPlayers(new HumanPlayer(true), new HumanPlayer(false));
+        game.reset();
+        StringBuilder lines = new StringBuilder();
+        lines.append("game\t").append(archived.index()).append('\t').append(archived.firstType()).append('\t')
+                .append(archived.secondType()).append('\t').append(archived.firstDiscs()).append('\t')
+                .append(archived.secondDiscs()).append('\n');
+        int[] moves = archived.moves();
+        int blunders = 0;
+        for (int ply = 0; ply < moves.length; ply++) {
+            int played = moves[ply];
+            if (!game.isLegal(played)) {
+                throw new IllegalStateException("Illegal move " + PackedMove.toString(played) + " in game "
+                        + archived.index());
+            }
+            boolean first = game.isFirstPlayerTurn();
+            analyst.table.newSearch();
+            int best = analyst.search.search(game, NO_TIME_LIMIT, depth);
+            int bestScore = analyst.search.getBestScore();
+            int completedDepth = analyst.search.getCompletedDepth();
+            int playedScore = bestScore;
+            if (played != best) {
+                game.makeMove(played);
+                playedScore = scoreAfterMove(analyst, game, first);
+                game.unmakeMove();
+            }
+            int loss = Math.max(0, bestScore - playedScore); // a shallower search may score the played move higher
+            boolean blunder = loss >= blunderThreshold;
+            blunders += blunder ? 1 : 0;
+            lines.append(ply + 1).append('\t').append(first ? 1 : 2).append('\t').append(played).append('\t')
+                    .append(playedScore).append('\t').append(best).append('\t').append(bestScore).append('\t')
+                    .append(loss).append('\t').append(completedDepth).append('\t')
+                    .append(blunder ? "BLUNDER" : "-").append('\n');
+            game.makeMove(played);
+        }
+        return new Analysis(lines.toString(), blunders);
+    }
+
+    /**
+     * Scores the position after a move for the player who made it, searching one ply shallower.
+     */
+    private int scoreAfterMove(Analyst analyst, BitboardGameLogic game, boolean mover) {
+        int score;
+        if (game.validMoveMask() == 0) {
+            score = AlphaBetaSearch.finalScore(game);
+        } else {
+            analyst.table.newSearch();
+            analyst.search.search(game, NO_TIME_LIMIT, depth - 1);
+            score = analyst.search.getBestScore();
+        }
+        return game.isFirstPlayerTurn() == mover ? score : -score;
+    }
+
+    private static Analysis take(Deque<Future<Analysis>> inFlight) throws InterruptedException {
+        try {
+            return inFlight.poll().get();
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Game analysis failed", e.getCause());
+        }
+    }
+
+    private void write(FileChannel out, Analysis analysis) throws IOException {
+        ByteBuffer buffer = ByteBuffer.wrap(analysis.lines().getBytes(StandardCharsets.UTF_8));
+        while (buffer.hasRemaining()) {
+            out.write(buffer);
+        }
+        blunders += analysis.blunders();
+    }
+
+    /**
+     * Forces the output to disk, then records the games and bytes written in the progress file, replacing it
+     * atomically so that a crash leaves either the old or the new checkpoint.
+     */
+    private static void checkpoint(FileChannel out, Path progress, long games) throws IOException {
+        out.force(false);
+        Path temporary = progress.resolveSibling(progress.getFileName() + ".tmp");
+        Files.writeString(temporary, games + " " + out.position() + "\n");
+        Files.move(temporary, progress, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+}
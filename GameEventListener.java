@@ -0,0 +1,84 @@
+/**
+ * The GameEventListener interface receives the events of a game: discs placed and flipped, undo and game over.
+ * The game logic reports events with plain values instead of formatted text, so a listener decides if and how
+ * to print them and the move itself never formats strings or writes to the console.
+ * Every method does nothing by default; NONE is the listener to use for engines, AI search and simulations.
+ */
+public interface GameEventListener {
+
+    /**
+     * A listener that ignores every event.
+     */
+    GameEventListener NONE = new GameEventListener() {
+    };
+
+    /**
+     * A disc was placed on the board.
+     *
+     * @param player the number of the player who placed it (1 or 2)
+     * @param type   the type symbol of the disc, as returned by Disc.getType()
+     * @param row    the row of the disc
+     * @param col    the column of the disc
+     */
+    default void discPlaced(int player, String type, int row, int col) {
+    }
+
+    /**
+     * A disc was flipped by the last placed disc.
+     *
+     * @param player the number of the player who flipped it (1 or 2)
+     * @param type   the type symbol of the flipped disc
+     * @param row    the row of the disc
+     * @param col    the column of the disc
+     */
+    default void discFlipped(int player, String type, int row, int col) {
+    }
+
+    /**
+     * All the discs of the last move were flipped.
+     */
+    default void moveFinished() {
+    }
+
+    /**
+     * The last move is being undone and its disc was removed from the board.
+     *
+     * @param type the type symbol of the removed disc
+     * @param row  the row of the disc
+     * @param col  the column of the disc
+     */
+    default void moveUndone(String type, int row, int col) {
+    }
+
+    /**
+     * A disc flipped by the undone move was given back to its previous owner.
+     *
+     * @param type the type symbol of the disc
+     * @param row  the row of the disc
+     * @param col  the column of the disc
+     */
+    default void discFlippedBack(String type, int row, int col) {
+    }
+
+    /**
+     * All the discs of the undone move were restored.
+     */
+    default void undoFinished() {
+    }
+
+    /**
+     * An undo was requested, but there is no move to undo.
+     */
+    default void undoUnavailable() {
+    }
+
+    /**
+     * The game is over.
+     *
+     * @param winner      the number of the winning player (1 or 2)
+     * @param winnerDiscs the number of discs of the winner
+     * @param loserDiscs  the number of discs of the other player
+     */
+    default void gameOver(int winner, int winnerDiscs, int loserDiscs) {
+    }
+}
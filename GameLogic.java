@@ -1,6 +1,5 @@
 import java.util.ArrayList;
 import java.util.List;
-import java.util.Stack;
 
 
 /**
@@ -15,16 +14,39 @@ public class GameLogic implements PlayableLogic {
     private final List<Move> moveHistory; // list of game moves
     private static final int BOARD_SIZE = 8; // the normal size of the board
     private boolean isFirst = true; // Indicates if it's the first player's turn
-    private final Stack<List<Disc>> FlipsHistory;// Stack of lists to store flipped discs due to bomb discs
-    private static final int[][] DIRECTIONS = {{0, 1}, {0, -1}, {1, 0}, {-1, 0}, {1, 1}, {1, -1}, {-1, 1}, {-1, -1}};
+    private final int[] flippedSquares; // the squares (row * 8 + col) flipped by the moves in moveHistory, move after move
+    private final int[] flipCounts; // the number of squares in flippedSquares for every move in moveHistory
+    private int flippedTotal; // the number of squares used in flippedSquares
+    private long bombSquares; // the squares (bit row * 8 + col) of the bomb discs on the board
+    private GameEventListener listener; // receives the events of the game
+    private int player1Discs; // the number of discs of player1 on the board, kept up to date by every move and undo
+    private int player2Discs; // the number of discs of player2 on the board
+    private long player1Squares; // the squares (bit row * 8 + col) of the discs of player1, kept like the counts
+    private long player2Squares; // the squares of the discs of player2
+    private long unflippableSquares; // the squares of the unflippable discs on the board
+    private long player1Moves; // the valid moves of player1, computed from the masks after every move and undo
+    private long player2Moves; // the valid moves of player2
+    private boolean winRecorded; // true once isGameFinished has added the win of the finished game
 
     /**
      * Constructs a new GameLogic instance with an empty board and history.
+     * The events of the game are printed to the console by the shared ConsoleEventLogger.
      */
     public GameLogic() {
+        this(ConsoleEventLogger.shared());
+    }
+
+    /**
+     * Constructs a new GameLogic instance with an empty board and history.
+     *
+     * @param listener receives the events of the game; use GameEventListener.NONE for headless games
+     */
+    public GameLogic(GameEventListener listener) {
+        this.listener = listener;
         moveHistory = new ArrayList<>();
         board = new Disc[BOARD_SIZE][BOARD_SIZE];
-        FlipsHistory = new Stack<>();
+        flipCounts = new int[BOARD_SIZE * BOARD_SIZE]; // every move fills one square
+        flippedSquares = new int[BOARD_SIZE * BOARD_SIZE * BOARD_SIZE * BOARD_SIZE]; // and flips less than a full board
     }
 
     /**
@@ -43,16 +65,13 @@ public class GameLogic implements PlayableLogic {
                 return false;
             }
 
-         //print
-            System.out.println("Player " + (currentPlayer.isPlayerOne() ? "1" : "2") +
-                    " placed a " + disc.getType() +
-                    " in (" + a.row() + ", " + a.col() + ")");
-
-
+            listener.discPlaced(currentPlayer.isPlayerOne() ? 1 : 2, disc.getType(), a.row(), a.col());
+            countDisc(disc.getOwner(), a.row() * BOARD_SIZE + a.col(), 1);
             flipDiscs(a);
-            System.out.println("");
+            listener.moveFinished();
             moveHistory.add(new Move(a, disc));
             isFirst = !isFirst;
+            boardChanged();
 
             return true; // if the move was successful
         }
@@ -87,16 +106,27 @@ public class GameLogic implements PlayableLogic {
      */
     @Override
     public List<Position> ValidMoves() {
-        List<Position> validMoves = new ArrayList<>();
-        for (int row = 0; row < BOARD_SIZE; row++) {
-            for (int col = 0; col < BOARD_SIZE; col++) {
-                Position pos = new Position(row, col);
-                if (isMoveValid(pos)) {
-                    validMoves.add(pos);// Add the valid position to the list
-                }
-            }
-        }
-        return validMoves;
+        return MoveGenerator.toPositions(validMoveMask());
+    }
+
+    /**
+     * Returns the valid moves of the current player as a mask, with bit row * 8 + col set for every valid square.
+     * The moves of both players are kept up to date by every move and undo, so this is O(1).
+     *
+     * @return the mask of the squares where the current player can place a disc.
+     */
+    public long validMoveMask() {
+        return validMoveMask(isFirst);
+    }
+
+    /**
+     * Returns the valid moves of either player as a mask, whoever is to move, in O(1).
+     *
+     * @param firstPlayer true for the first player, false for the second one
+     * @return the mask of the squares where the player could place a disc.
+     */
+    public long validMoveMask(boolean firstPlayer) {
+        return firstPlayer ? player1Moves : player2Moves;
     }
 
     /**
@@ -149,6 +179,15 @@ public class GameLogic implements PlayableLogic {
 
     }
 
+    /**
+     * Sets the listener that receives the events of the game.
+     *
+     * @param listener the new listener; GameEventListener.NONE silences the game
+     */
+    public void setEventListener(GameEventListener listener) {
+        this.listener = listener;
+    }
+
     /**
      * Checks if it's the first player's turn.
      *
@@ -161,48 +200,60 @@ public class GameLogic implements PlayableLogic {
 
     /**
      * Checks if the game is finished.
-     * The game ends if neither player has a valid move.
+     * The game ends when the player to move has no valid move. The first call for a finished game adds
+     * the win to the winner and reports the result; later calls only return true.
      *
      * @return true if the game is finished, false otherwise.
      */
     @Override
     public boolean isGameFinished() {
-        // if one of the players has  more legal moves the game is not finish
-        if (hasValidMove(player1) || hasValidMove(player2)) {
+        if (!isGameOver()) {
             return false;
         }
-
-        // counting the number of discs for each player
-        int player_1_discs = 0;
-        int player_2_discs = 0;
-        for (int i = 0; i < BOARD_SIZE; i++) {
-            for (int j = 0; j < BOARD_SIZE; j++) {
-                if (board[i][j] != null) {
-                    if (board[i][j].getOwner() == player1) {
-                        player_1_discs++;
-                    } else {
-                        player_2_discs++;
-                    }
-                }
+        if (!winRecorded) {
+            winRecorded = true;
+            // adding the win to the winning payer
+            if (getWinner() == player1) {
+                player1.addWin();
+                listener.gameOver(1, player1Discs, player2Discs);
+            } else {
+                player2.addWin();
+                listener.gameOver(2, player2Discs, player1Discs);
             }
         }
+        return true; // the game is finished
+    }
 
-        // check who won
-        String winner = player_1_discs >= player_2_discs ? "1" : "2";
+    /**
+     * Checks if the game is over, without any side effect: the player to move has no valid move.
+     *
+     * @return true if the game is over, false otherwise.
+     */
+    public boolean isGameOver() {
+        return validMoveMask() == 0;
+    }
 
-        // adding the win to the winning payer
-        if (winner.equals("1")) {
-            player1.addWin();
-        } else {
-            player2.addWin();
+    /**
+     * Returns the number of discs a player has on the board, in O(1).
+     *
+     * @param firstPlayer true for the first player, false for the second one
+     * @return the number of discs of the player
+     */
+    public int getDiscCount(boolean firstPlayer) {
+        return firstPlayer ? player1Discs : player2Discs;
+    }
+
+    /**
+     * Returns the winner of a finished game, without any side effect.
+     * As in isGameFinished, a tie is won by the first player.
+     *
+     * @return the winning player, or null if the game is not over
+     */
+    public Player getWinner() {
+        if (!isGameOver()) {
+            return null;
         }
-        // print
-        System.out.printf("Player %s wins with %d discs! Player %s had %d discs.%n",
-                winner,
-                winner.equals("1") ? player_1_discs : player_2_discs,
-                winner.equals("1") ? "2" : "1",
-                winner.equals("1") ? player_2_discs : player_1_discs);
-        return true; // the game is finished
+        return player1Discs >= player2Discs ? player1 : player2;
     }
 
 
@@ -217,11 +268,18 @@ public class GameLogic implements PlayableLogic {
     public void reset() {
         board = new Disc[BOARD_SIZE][BOARD_SIZE]; // create new bord
         moveHistory.clear(); // Clear the move history
-        FlipsHistory.clear(); // Clear the stack of bomb flips
+        flippedTotal = 0; // Clear the history of flipped discs
+        bombSquares = 0;
+        unflippableSquares = 0;
+        player1Discs = 0;
+        player2Discs = 0;
+        player1Squares = 0;
+        player2Squares = 0;
         player1.reset_bombs_and_unflippedable();
         player2.reset_bombs_and_unflippedable();
         initializeBoard(); // Re-initialize the board with the starting position
         isFirst =true;// the first turn is player1
+        boardChanged();
 
     }
 
@@ -237,8 +295,6 @@ public class GameLogic implements PlayableLogic {
     public void undoLastMove() {
         if ((player1 instanceof HumanPlayer) && (player2 instanceof HumanPlayer)) {
             if (!moveHistory.isEmpty()) {
-                System.out.println("Undoing last move:");
-
                 // removing the last move from the history of moves
                 Move lastMove = moveHistory.remove(moveHistory.size() - 1);
                 Position lastPosition = lastMove.position();
@@ -246,27 +302,27 @@ public class GameLogic implements PlayableLogic {
                 // removing the last disc placed from the board
                 Disc removedDisc = board[lastPosition.row()][lastPosition.col()];
 
-                //print
-                String removedDiscType = removedDisc.getType();
-                System.out.printf("\tUndo: removing '%s' from (%d, %d)%n",
-                        removedDiscType, lastPosition.row(), lastPosition.col());
+                listener.moveUndone(removedDisc.getType(), lastPosition.row(), lastPosition.col());
                 board[lastPosition.row()][lastPosition.col()] = null;
-
-                // recovering discs that were overturned in the last move
-                if (!FlipsHistory.isEmpty()) {
-                    List<Disc> flippedDiscs = FlipsHistory.pop();
-                    for (Disc flippedDisc : flippedDiscs) {
-                        Player currentOwner = flippedDisc.getOwner();
-                        Player newOwner = currentOwner == player1 ? player2 : player1;
-                        flippedDisc.setOwner(newOwner);
-
-                        // prnit
-                        Position flippedPosition = find_disc(flippedDisc);
-                        String flippedDiscType = flippedDisc.getType();
-                        System.out.printf("\tUndo: flipping back '%s' in (%d, %d)%n",
-                                flippedDiscType, flippedPosition.row(), flippedPosition.col());
-                    }
-                    System.out.println();
+                int lastSquare = lastPosition.row() * BOARD_SIZE + lastPosition.col();
+                countDisc(removedDisc.getOwner(), lastSquare, -1);
+                bombSquares &= ~(1L << lastSquare);
+                unflippableSquares &= ~(1L << lastSquare);
+
+                // recovering discs that were overturned in the last move, in O(flips)
+                int flipCount = flipCounts[moveHistory.size()];
+                for (int i = 0; i < flipCount; i++) {
+                    int square = flippedSquares[--flippedTotal];
+                    Disc flippedDisc = board[square / BOARD_SIZE][square % BOARD_SIZE];
+                    Player currentOwner = flippedDisc.getOwner();
+                    Player newOwner = currentOwner == player1 ? player2 : player1;
+                    flippedDisc.setOwner(newOwner);
+                    countDisc(currentOwner, square, -1);
+                    countDisc(newOwner, square, 1);
+                    listener.discFlippedBack(flippedDisc.getType(), square / BOARD_SIZE, square % BOARD_SIZE);
+                }
+                if (flipCount > 0) {
+                    listener.undoFinished();
                 }
 
                 // if the disc we removed from the board was a bomb - update the number of bombs for the current player
@@ -280,9 +336,9 @@ public class GameLogic implements PlayableLogic {
 
                 // pass the turn
                 isFirst = !isFirst;
+                boardChanged();
             } else {
-                System.out.println("\tNo previous move available to undo.");
-                System.out.println();
+                listener.undoUnavailable();
             }
         }
     }
@@ -302,6 +358,10 @@ public class GameLogic implements PlayableLogic {
         board[mid][mid] = new SimpleDisc(player1); // First player's disc at (4,4)
         board[mid - 1][mid] = new SimpleDisc(player2); // Second player's disc at (3,4)
         board[mid][mid - 1] = new SimpleDisc(player2);  // Second player's disc at (4,3)
+        countDisc(player1, (mid - 1) * BOARD_SIZE + mid - 1, 1);
+        countDisc(player1, mid * BOARD_SIZE + mid, 1);
+        countDisc(player2, (mid - 1) * BOARD_SIZE + mid, 1);
+        countDisc(player2, mid * BOARD_SIZE + mid - 1, 1);
     }
 
     /**
@@ -312,7 +372,7 @@ public class GameLogic implements PlayableLogic {
      * @return true if the move is valid, false otherwise
      */
     private boolean isMoveValid(Position pos) {
-        return isInBounds(pos.row(), pos.col()) && board[pos.row()][pos.col()] == null && countFlips(pos) > 0;
+        return isInBounds(pos.row(), pos.col()) && (validMoveMask() & (1L << (pos.row() * BOARD_SIZE + pos.col()))) != 0;
     }
 
     /**
@@ -333,9 +393,11 @@ public class GameLogic implements PlayableLogic {
         if (disc instanceof BombDisc && currentPlayer.getNumber_of_bombs() > 0) {
             currentPlayer.reduce_bomb();
             board[pos.row()][pos.col()] = disc;
+            bombSquares |= 1L << (pos.row() * BOARD_SIZE + pos.col());
         } else if (disc instanceof UnflippableDisc && currentPlayer.getNumber_of_unflippedable() > 0) {
             currentPlayer.reduce_unflippedable();
             board[pos.row()][pos.col()] = disc;
+            unflippableSquares |= 1L << (pos.row() * BOARD_SIZE + pos.col());
         } else if (!(disc instanceof BombDisc) && !(disc instanceof UnflippableDisc)) {
             // Place a simple disc on the board
             board[pos.row()][pos.col()] = disc;
@@ -344,29 +406,21 @@ public class GameLogic implements PlayableLogic {
 
     /**
      * Flips opponent discs affected by the most recent move, following the rules of Reversi.
-     * Records flipped discs for potential undo operations.
+     * Records the squares of the flipped discs for potential undo operations.
      *
      * @param pos the position of the newly placed disc
      */
     private void flipDiscs(Position pos) {
-        ArrayList<Disc> flippedDiscs = new ArrayList<>();
+        int flippedBefore = flippedTotal;
         countOrFlip(pos.row(), pos.col(), true);
-
-        // Print the flipped discs
-        for (Disc flippedDisc : flippedDiscs) {
-            Position flippedPosition = find_disc(flippedDisc);
-            String discType = flippedDisc instanceof BombDisc ? "bomb disc"
-                    : flippedDisc instanceof UnflippableDisc ? "unflippable disc"
-                    : "simple disc";
-            int playerNumber = flippedDisc.getOwner() == player1 ? 1 : 2;
-            System.out.printf("Player %d flipped the %s in (%d, %d)%n",
-                    playerNumber, discType, flippedPosition.row(), flippedPosition.col());
-        }
+        flipCounts[moveHistory.size()] = flippedTotal - flippedBefore;
     }
 
     /**
      * Counts or flips discs in all valid directions from the given position.
-     * Traverses the board to determine which discs should be flipped or calculates their count.
+     * Every line is walked over the precomputed rays of RayTables and the discs are collected in a 64-bit mask
+     * (bit row * 8 + col), so counting allocates nothing and a disc reached twice is only counted once.
+     * When flipping, every direction is resolved on the board left by the previous directions.
      *
      * @param dx      the row coordinate of the starting position
      * @param dy      the column coordinate of the starting position
@@ -374,128 +428,83 @@ public class GameLogic implements PlayableLogic {
      * @return the number of discs flipped or that could be flipped
      */
     private int countOrFlip(int dx, int dy, boolean toFlip) {
-        ArrayList<Disc> needToFlip = new ArrayList<>();
-        ArrayList<Disc> allFlippedDiscs = new ArrayList<>(); // the finel list of discs that fliped in this turn
-
-        for (int[] direction : DIRECTIONS) {
-            Player currentPlayer = isFirstPlayerTurn() ? player1 : player2;
-            int x = dx + direction[0];
-            int y = dy + direction[1];
-            ArrayList<Disc> flipD = new ArrayList<>();// a list of the discs that will fliped in the dirction
-
-            while (isInBounds(x, y) && board[x][y] != null && board[x][y].getOwner() != currentPlayer) {
-                Disc d = board[x][y];
-                // if the disc is not an unflipeddisc
-                if (!(d instanceof UnflippableDisc)) {
-                    flipD.add(board[x][y]);
-                }
-                x += direction[0];
-                y += direction[1];
-            }
-
-            // Validate the sequence to ensure it ends with the current player's piece
-            if (!isInBounds(x, y) || board[x][y] == null || board[x][y].getOwner() != currentPlayer) {
-                flipD.clear();  // Reset flips if not bounded by the player's piece
-            }
-
-            if (!flipD.isEmpty()) {
-                for (int i = 0; i < flipD.size(); i++) {
-                    Position a = find_disc(flipD.get(i));
+        Player currentPlayer = isFirstPlayerTurn() ? player1 : player2;
+        int square = dx * BOARD_SIZE + dy;
+        long needToFlip = 0; // the discs that will be flipped, from all the directions
 
-                    // if the disc that we want to flip is a bomb - flip all the discs around
-                    if (flipD.get(i) instanceof BombDisc) {
-                        countOrFlipSurroundFlips(a.row(), a.col(), currentPlayer, flipD);
-                    }
-                }
+        for (int direction = 0; direction < RayTables.DIRECTION_COUNT; direction++) {
+            long flipD = directionFlips(square, direction, currentPlayer); // the discs that will be flipped in the direction
+            if (flipD == 0) {
+                continue;
             }
+            // if a disc that we want to flip is a bomb - flip all the discs around
+            flipD = countOrFlipSurroundFlips(flipD, currentPlayer);
 
             // if we want to flip ,and we have discs to flip
-            if (toFlip && !flipD.isEmpty()) {
-                for (Disc disc : flipD) {
+            if (toFlip) {
+                for (long rest = flipD; rest != 0; rest &= rest - 1) {
+                    int flipped = Long.numberOfTrailingZeros(rest);
+                    Disc disc = board[flipped / BOARD_SIZE][flipped % BOARD_SIZE];
+                    countDisc(disc.getOwner(), flipped, -1);
                     disc.setOwner(currentPlayer); // flip the disc
-                }
-                allFlippedDiscs.addAll(flipD); // add the disc that we fliped to the list of all the discs that we fliped in this turn
-
-                //print
-                for (Disc disc : flipD) {
-                    Position pos = find_disc(disc); // find the position of the disc
-                    String discType = disc instanceof BombDisc ? "BombDisc" :
-                            disc instanceof UnflippableDisc ? "UnflippableDisc" :
-                                    "SimpleDisc";
-                    System.out.printf("Player %d flipped the %s in (%d, %d)%n",
-                            currentPlayer == player1 ? 1 : 2,
-                            disc.getType(),
-                            pos.row(), pos.col());
-                    System.out.printf("");
-                }
-
-            }
-
-            for (Disc disc : flipD) {
-                // add to the list that count how many will be flip
-                if (!needToFlip.contains(disc)) {
-                    needToFlip.add(disc);
+                    countDisc(currentPlayer, flipped, 1);
+                    flippedSquares[flippedTotal++] = flipped; // remember it for undo
+                    listener.discFlipped(currentPlayer == player1 ? 1 : 2, disc.getType(),
+                            flipped / BOARD_SIZE, flipped % BOARD_SIZE);
                 }
             }
+            needToFlip |= flipD;
         }
-
-        // insert the list of all the discs that fliped in this turn to the history
-        if (toFlip && !allFlippedDiscs.isEmpty()) {
-            FlipsHistory.push(allFlippedDiscs); // add the list of all the discs that fliped to the history
-        }
-        return needToFlip.size();
+        return Long.bitCount(needToFlip);
     }
 
     /**
-     * Counts or flips discs surrounding a BombDisc at the specified position.
-     * Applies cascading effects if adjacent BombDiscs are triggered.
+     * Walks from the given square in one direction over the discs of the other player.
+     * The line counts only if it ends with a disc of the current player; unflippable discs are passed over
+     * but never flipped.
      *
-     * @param bombX         the row coordinate of the BombDisc
-     * @param bombY         the column coordinate of the BombDisc
+     * @param square        the starting square (row * 8 + col)
+     * @param direction     the index of the direction in RayTables
      * @param currentPlayer the current player
-     * @param flipped_disc  the list of discs already flipped
-     * @return the total number of discs flipped by the BombDisc effect
+     * @return the mask of the discs to flip on the line, or 0 if the line is not closed
      */
-    private int countOrFlipSurroundFlips(int bombX, int bombY, Player currentPlayer, ArrayList<Disc> flipped_disc) {
-        int flipCount = 0;
-
-        for (int[] direction : DIRECTIONS) {
-            int x = bombX + direction[0];
-            int y = bombY + direction[1];
-
-            if (isInBounds(x, y) && board[x][y] != null && board[x][y].getOwner() != currentPlayer && !(board[x][y] instanceof UnflippableDisc) && !flipped_disc.contains(board[x][y])) {
-                if (board[x][y] instanceof BombDisc) {
-                    flipped_disc.add(board[x][y]);
-                    flipCount += countOrFlipSurroundFlips(x, y, currentPlayer, flipped_disc) + 1;
-                } else {
-                    flipped_disc.add(board[x][y]);
-                    flipCount++;
-                }
+    private long directionFlips(int square, int direction, Player currentPlayer) {
+        long line = 0;
+        for (int target : RayTables.squares(square, direction)) {
+            Disc disc = board[target / BOARD_SIZE][target % BOARD_SIZE];
+            if (disc == null) {
+                return 0; // Reset flips if not bounded by the player's piece
+            }
+            if (disc.getOwner() == currentPlayer) {
+                return line;
+            }
+            // if the disc is not an unflipeddisc
+            if (!(disc instanceof UnflippableDisc)) {
+                line |= 1L << target;
             }
         }
-
-        return flipCount;
+        return 0; // the line reached the edge of the board
     }
 
     /**
-     * Finds the position of a specific disc on the board.
+     * Adds the discs flipped by BombDiscs to the given discs.
+     * A flipped BombDisc flips every flippable disc of the other player around it, and bombs flipped this way
+     * explode as well. The flippable discs come from the disc masks; the cascade itself is resolved by
+     * BombCascade.
      *
-     * @param disc the disc to locate
-     * @return the position of the disc, or null if the disc is not found
+     * @param flipped       the discs flipped so far
+     * @param currentPlayer the current player
+     * @return the flipped discs together with the discs flipped by the bombs
      */
-    private Position find_disc(Disc disc){
-        Position pos = null;
-        for (int i = 0; i < BOARD_SIZE; i++) {
-            for (int j = 0; j < BOARD_SIZE; j++) {
-                if (board[i][j] == disc){
-                    pos = new Position(i,j);
-                }
-            }
+    private long countOrFlipSurroundFlips(long flipped, Player currentPlayer) {
+        if ((flipped & bombSquares) == 0) {
+            return flipped; // no bomb to explode
         }
-        return pos;
+        long opponent = currentPlayer == player1 ? player2Squares : player1Squares;
+        long flippable = opponent & ~unflippableSquares; // the discs of the other player that are not unflippable
+        return BombCascade.resolve(flipped, bombSquares, flippable);
     }
 
-
     /**
      * Checks if the specified coordinates are within the board's bounds.
      *
@@ -508,19 +517,30 @@ public class GameLogic implements PlayableLogic {
     }
 
     /**
-     * Determines if the specified player has at least one valid move on the board.
+     * Updates the disc count and the disc mask of a player.
      *
-     * @param player the player to check for valid moves
-     * @return true if the player has a valid move, false otherwise
+     * @param owner  the owner of the disc that was added or removed
+     * @param square the square of the disc (row * 8 + col)
+     * @param change +1 for an added disc, -1 for a removed one
      */
-    private boolean hasValidMove(Player player) {
-        for (int row = 0; row < BOARD_SIZE; row++) {
-            for (int col = 0; col < BOARD_SIZE; col++) {
-                if (isMoveValid(new Position(row, col))) {
-                    return true;
-                }
-            }
+    private void countDisc(Player owner, int square, int change) {
+        long bit = 1L << square;
+        if (owner == player1) {
+            player1Discs += change;
+            player1Squares = change > 0 ? player1Squares | bit : player1Squares & ~bit;
+        } else {
+            player2Discs += change;
+            player2Squares = change > 0 ? player2Squares | bit : player2Squares & ~bit;
         }
-        return false;
     }
-}
\ No newline at end of file
+
+    /**
+     * Updates the valid moves of both players from the disc masks, with the shifts of MoveGenerator instead of a
+     * scan of the board, and forgets the recorded win after a change of the board.
+     */
+    private void boardChanged() {
+        player1Moves = MoveGenerator.validMoves(player1Squares, player2Squares, unflippableSquares);
+        player2Moves = MoveGenerator.validMoves(player2Squares, player1Squares, unflippableSquares);
+        winRecorded = false;
+    }
+}
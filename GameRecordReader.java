@@ -0,0 +1,214 @@
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Streams the games of an archive written by GameRecordWriter, one at a time, through one direct buffer.
+ * The current game is decoded into reused fields (the moves as packed moves), so reading allocates nothing
+ * per game: no Move or Position objects and no strings, as every player type name is decoded once.
+ * Run with: java GameRecordReader [archive file]; it prints the wins, draws and losses of the first player by
+ * pairing, counting equal disc counts as a draw as Tournament and GameTrie do, and checks every game by replaying it.
+ */
+public class GameRecordReader implements AutoCloseable {
+    private static final int BUFFER_BYTES = 64 * 1024;
+    private static final int MAX_PLY = 64; // every move fills one square
+
+    private final ReadableByteChannel channel;
+    private final ByteBuffer buffer = ByteBuffer.allocateDirect(BUFFER_BYTES);
+    private final String[] types = new String[GameRecordWriter.MAX_TYPES];
+    private final int[] moves = new int[MAX_PLY];
+    private int firstType;
+    private int secondType;
+    private int firstDiscs;
+    private int secondDiscs;
+    private int moveCount;
+    private boolean ended;
+
+    /**
+     * Constructs a new GameRecordReader and checks the header.
+     *
+     * @param channel the channel to read from; it is closed by close
+     * @throws IOException if the channel can not be read or does not hold an archive
+     */
+    public GameRecordReader(ReadableByteChannel channel) throws IOException {
+        this.channel = channel;
+        buffer.flip(); // empty, in read mode
+        if (!fill(8) || buffer.getInt() != GameRecordWriter.MAGIC || buffer.getInt() != GameRecordWriter.VERSION) {
+            throw new IOException("Not a game archive");
+        }
+    }
+
+    public static void main(String[] args) throws IOException {
+        Path file = Path.of(args.length > 0 ? args[0] : "games.archive");
+        Map<String, long[]> pairings = new HashMap<>(); // "first - second" to {first wins, draws, second wins}
+        BitboardGameLogic game = new BitboardGameLogic();
+        game.setPlayers(new HumanPlayer(true), new HumanPlayer(false));
+        long games = 0;
+        long plies = 0;
+        long begin = System.nanoTime();
+        try (GameRecordReader reader = new GameRecordReader(FileChannel.open(file, StandardOpenOption.READ))) {
+            while (reader.next()) {
+                games++;
+                plies += reader.getMoveCount();
+                long[] results = pairings.computeIfAbsent(reader.getFirstType() + " - " + reader.getSecondType(),
+                        key -> new long[3]);
+                results[1 - Integer.signum(reader.getFirstDiscs() - reader.getSecondDiscs())]++;
+            }
+        }
+        double decodeSeconds = (System.nanoTime() - begin) / 1e9;
+
+        begin = System.nanoTime();
+        long invalid = 0;
+        try (GameRecordReader reader = new GameRecordReader(FileChannel.open(file, StandardOpenOption.READ))) {
+            while (reader.next()) {
+                if (!reader.replay(game) || !game.isGameOver() || game.getDiscCount(true) != reader.getFirstDiscs()
+                        || game.getDiscCount(false) != reader.getSecondDiscs()) {
+                    invalid++;
+                }
+            }
+        }
+        double replaySeconds = (System.nanoTime() - begin) / 1e9;
+
+        pairings.forEach((pairing, results) -> System.out.printf("%-40s %8d - %d - %d%n", pairing, results[0],
+                results[1], results[2]));
+        System.out.printf("%d games, %d moves: decoded at %.0f games/s, replayed at %.0f games/s, %d invalid%n",
+                games, plies, games / decodeSeconds, games / replaySeconds, invalid);
+    }
+
+    /**
+     * Reads the next game.
+     *
+     * @return false at the end of the archive
+     * @throws IOException if the channel can not be read or the archive is corrupt
+     */
+    public boolean next() throws IOException {
+        while (fill(1)) {
+            byte tag = buffer.get();
+            if (tag == GameRecordWriter.TYPE) {
+                readType();
+            } else if (tag == GameRecordWriter.GAME) {
+                readGame();
+                return true;
+            } else {
+                throw new IOException("Corrupt game archive: unknown record " + tag);
+            }
+        }
+        return false;
+    }
+
+    private void readType() throws IOException {
+        require(2);
+        int id = buffer.get() & 0xFF;
+        int length = buffer.get() & 0xFF;
+        require(length);
+        byte[] name = new byte[length];
+        buffer.get(name);
+        types[id] = new String(name, StandardCharsets.UTF_8);
+    }
+
+    private void readGame() throws IOException {
+        require(5);
+        firstType = buffer.get() & 0xFF;
+        secondType = buffer.get() & 0xFF;
+        firstDiscs = buffer.get() & 0xFF;
+        secondDiscs = buffer.get() & 0xFF;
+        moveCount = buffer.get() & 0xFF;
+        if (moveCount > MAX_PLY || types[firstType] == null || types[secondType] == null) {
+            throw new IOException("Corrupt game archive");
+        }
+        require(moveCount);
+        for (int i = 0; i < moveCount; i++) {
+            moves[i] = buffer.get() & 0xFF;
+        }
+    }
+
+    /**
+     * Plays the moves of the current game on a game, from the initial position.
+     *
+     * @param game the game to replay on; it is reset first, which resets the inventories of its players
+     * @return false if a move is illegal
+     */
+    public boolean replay(BitboardGameLogic game) {
+        game.reset();
+        for (int i = 0; i < moveCount; i++) {
+            if (!game.isLegal(moves[i])) {
+                return false;
+            }
+            game.makeMove(moves[i]);
+        }
+        return true;
+    }
+
+    public String getFirstType() {
+        return types[firstType];
+    }
+
+    public String getSecondType() {
+        return types[secondType];
+    }
+
+    public int getFirstDiscs() {
+        return firstDiscs;
+    }
+
+    public int getSecondDiscs() {
+        return secondDiscs;
+    }
+
+    public int getMoveCount() {
+        return moveCount;
+    }
+
+    /**
+     * Returns a move of the current game.
+     *
+     * @param index the index of the move, below getMoveCount()
+     * @return the packed move
+     */
+    public int getMove(int index) {
+        return moves[index];
+    }
+
+    /**
+     * Makes sure the buffer holds the given number of bytes, or fails on a truncated archive.
+     */
+    private void require(int bytes) throws IOException {
+        if (!fill(bytes)) {
+            throw new IOException("Truncated game archive");
+        }
+    }
+
+    /**
+     * Reads from the channel until the buffer holds the given number of bytes.
+     *
+     * @return false if the channel ended first
+     */
+    private boolean fill(int bytes) throws IOException {
+        if (buffer.remaining() >= bytes) {
+            return true;
+        }
+        if (ended) {
+            return false;
+        }
+        buffer.compact();
+        while (buffer.position() < bytes) {
+            if (channel.read(buffer) < 0) {
+                ended = true;
+                break;
+            }
+        }
+        buffer.flip();
+        return buffer.remaining() >= bytes;
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+}
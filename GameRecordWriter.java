@@ -0,0 +1,123 @@
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Writes games to a compact archive that GameRecordReader streams back.
+ * After a header of the magic number and the version (two ints), the archive is a sequence of records:
+ * <ul>
+ * <li>TYPE: the tag, the id of a player type and the length and UTF-8 bytes of its name (one byte each, then the
+ * name). It is written before the first game of the type, so the games only store the id;</li>
+ * <li>GAME: the tag, the type ids of the first and second player, the final disc counts of the first and second
+ * player, the number of moves, then every move as one byte: the square (row * 8 + col) in the low 6 bits and
+ * the disc type in the high 2 bits, as a PackedMove.</li>
+ * </ul>
+ * A game of 60 moves takes 66 bytes. The channel is written through one direct buffer.
+ */
+public class GameRecordWriter implements AutoCloseable {
+    public static final int MAGIC = 0x52564752; // "RVGR"
+    public static final int VERSION = 1;
+    public static final byte TYPE = 1;
+    public static final byte GAME = 2;
+    public static final int MAX_TYPES = 256; // type ids are one byte
+    private static final int BUFFER_BYTES = 64 * 1024;
+
+    private final WritableByteChannel channel;
+    private final ByteBuffer buffer = ByteBuffer.allocateDirect(BUFFER_BYTES);
+    private final Map<String, Integer> typeIds = new HashMap<>();
+    private long games;
+
+    /**
+     * Constructs a new GameRecordWriter and writes the header.
+     *
+     * @param channel the channel to write to, usually a new file; it is closed by close
+     * @throws IOException if the channel can not be written
+     */
+    public GameRecordWriter(WritableByteChannel channel) throws IOException {
+        this.channel = channel;
+        buffer.putInt(MAGIC).putInt(VERSION);
+    }
+
+    /**
+     * Appends one game.
+     *
+     * @param firstType   the type of the first player, for example an AIPlayer type
+     * @param secondType  the type of the second player
+     * @param firstDiscs  the final disc count of the first player
+     * @param secondDiscs the final disc count of the second player
+     * @param moves       the packed moves of the game, in order
+     * @param count       the number of moves
+     * @throws IOException if the channel can not be written
+     */
+    public void write(String firstType, String secondType, int firstDiscs, int secondDiscs, int[] moves, int count)
+            throws IOException {
+        int first = typeId(firstType);
+        int second = typeId(secondType);
+        ensureRoom(6 + count);
+        buffer.put(GAME).put((byte) first).put((byte) second).put((byte) firstDiscs).put((byte) secondDiscs)
+                .put((byte) count);
+        for (int i = 0; i < count; i++) {
+            buffer.put((byte) moves[i]);
+        }
+        games++;
+    }
+
+    public long getGames() {
+        return games;
+    }
+
+    /**
+     * Returns the id of a player type, writing a TYPE record the first time.
+     */
+    private int typeId(String type) throws IOException {
+        Integer id = typeIds.get(type);
+        if (id != null) {
+            return id;
+        }
+        byte[] name = type.getBytes(StandardCharsets.UTF_8);
+        if (typeIds.size() == MAX_TYPES || name.length > 255) {
+            throw new IllegalArgumentException("Can not archive player type " + type);
+        }
+        id = typeIds.size();
+        typeIds.put(type, id);
+        ensureRoom(3 + name.length);
+        buffer.put(TYPE).put((byte) (int) id).put((byte) name.length).put(name);
+        return id;
+    }
+
+    private void ensureRoom(int bytes) throws IOException {
+        if (buffer.remaining() < bytes) {
+            flush();
+        }
+    }
+
+    /**
+     * Writes the buffered records to the channel.
+     *
+     * @throws IOException if the channel can not be written
+     */
+    public void flush() throws IOException {
+        buffer.flip();
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+        buffer.clear();
+    }
+
+    /**
+     * Writes the buffered records and closes the channel.
+     *
+     * @throws IOException if the channel can not be written or closed
+     */
+    @Override
+    public void close() throws IOException {
+        try {
+            flush();
+        } finally {
+            channel.close();
+        }
+    }
+}
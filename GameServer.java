@@ -0,0 +1,510 @@
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.ClosedSelectorException;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * A TCP game server for remote players, run by a single selector thread over non-blocking channels.
+ * A client plays against an engine (any registered AIPlayer type) or against another client, on a GameLogic
+ * that enforces the rules; the moves of engines are computed on a small thread pool, so the selector never
+ * blocks.
+ * <p>
+ * Protocol: every message in both directions is one frame of FRAME_BYTES bytes, an opcode and two argument
+ * bytes; moves are packed moves (see PackedMove), which fit in one byte. A client may send any number of
+ * requests without waiting for the replies (pipelining); they are handled in order, and the replies come back
+ * in the same order. Requests:
+ * <ul>
+ * <li>NEW_ENGINE_GAME [engine index, 1 if the client moves first]: a game against the engine type at that index
+ * of the server's engine list;</li>
+ * <li>JOIN [room, 0]: a game against the next client that joins the same room (0-255); the client that joined
+ * first moves first;</li>
+ * <li>MOVE [packed move, 0]: a move of the client in its game;</li>
+ * <li>RESIGN [0, 0]: ends the game of the client.</li>
+ * </ul>
+ * Replies and events:
+ * <ul>
+ * <li>STARTED [1 if the client moves first, 1 against an engine];</li>
+ * <li>MOVED [1 or 2 for the player that moved, packed move], sent to both players for every move;</li>
+ * <li>REJECTED [reason, opcode of the request]: the request was ignored;</li>
+ * <li>OVER [discs of the first player, discs of the second player]: the game ended normally;</li>
+ * <li>RESIGNED [1 or 2 for the player that resigned or disconnected, 0].</li>
+ * </ul>
+ * Every connection owns two fixed direct buffers, so the server allocates nothing per frame besides the Move
+ * objects that GameLogic stores. A client that pipelines faster than it reads is throttled: its requests wait
+ * while its reply buffer is nearly full.
+ * Run with: java GameServer [port] [AIPlayer types...]
+ */
+public class GameServer implements Runnable, AutoCloseable {
+    public static final int FRAME_BYTES = 3;
+    public static final int DEFAULT_PORT = 7777;
+    // request opcodes
+    public static final byte NEW_ENGINE_GAME = 1;
+    public static final byte JOIN = 2;
+    public static final byte MOVE = 3;
+    public static final byte RESIGN = 4;
+    // reply opcodes
+    public static final byte STARTED = (byte) 0x81;
+    public static final byte MOVED = (byte) 0x82;
+    public static final byte REJECTED = (byte) 0x83;
+    public static final byte OVER = (byte) 0x84;
+    public static final byte RESIGNED = (byte) 0x85;
+    // reasons of REJECTED
+    public static final byte NO_GAME = 1;
+    public static final byte NOT_YOUR_TURN = 2;
+    public static final byte ILLEGAL_MOVE = 3;
+    public static final byte UNKNOWN_ENGINE = 4;
+    public static final byte BAD_REQUEST = 5;
+    public static final byte IN_GAME = 6;
+
+    private static final int IN_BYTES = 4096; // the requests read at once
+    private static final int OUT_BYTES = 16384; // the replies waiting to be sent
+    private static final int OUT_RESERVE = 4 * FRAME_BYTES; // the most one request sends to its own client
+    private static final int ROOMS = 256; // JOIN pairs the clients of the same room
+
+    /**
+     * The state of one client connection.
+     */
+    private static final class Connection {
+        final SocketChannel channel;
+        final SelectionKey key;
+        final ByteBuffer in = ByteBuffer.allocateDirect(IN_BYTES); // in write mode
+        final ByteBuffer out = ByteBuffer.allocateDirect(OUT_BYTES); // in write mode
+        Session session; // the current game, or null
+        boolean dirty; // true while queued for a flush
+        boolean closed;
+
+        Connection(SocketChannel channel, SelectionKey key) {
+            this.channel = channel;
+            this.key = key;
+        }
+    }
+
+    /**
+     * One game; a seat is played either by a connection or by an engine.
+     */
+    private static final class Session {
+        final GameLogic game = new GameLogic(GameEventListener.NONE);
+        final Player player1;
+        final Player player2;
+        final Connection connection1; // null if the engine plays first
+        final Connection connection2; // null if the engine plays second
+        volatile int engineMove; // the packed move of the engine, or -1 if it failed
+        boolean thinking; // true while the engine computes a move
+        boolean over;
+
+        Session(Player player1, Player player2, Connection connection1, Connection connection2) {
+            this.player1 = player1;
+            this.player2 = player2;
+            this.connection1 = connection1;
+            this.connection2 = connection2;
+            game.setPlayers(player1, player2);
+            game.reset();
+        }
+
+        Connection connection(boolean first) {
+            return first ? connection1 : connection2;
+        }
+
+        Player player(boolean first) {
+            return first ? player1 : player2;
+        }
+    }
+
+    private final Selector selector;
+    private final ServerSocketChannel server;
+    private final List<String> engineTypes;
+    private final ExecutorService engines;
+    private final Queue<Session> engineResults = new ConcurrentLinkedQueue<>(); // filled by the engine threads
+    private final ArrayDeque<Connection> dirty = new ArrayDeque<>(); // connections with replies to flush
+    private final Connection[] waiting = new Connection[ROOMS]; // the client waiting in every room, or null
+
+    /**
+     * Constructs a new GameServer listening on the given port; run starts serving.
+     *
+     * @param port          the TCP port, or 0 for any free port
+     * @param engineTypes   the AIPlayer types clients can play against, by index
+     * @param engineThreads the number of threads that compute engine moves
+     * @throws IOException if the port can not be opened
+     */
+    public GameServer(int port, List<String> engineTypes, int engineThreads) throws IOException {
+        this.selector = Selector.open();
+        this.server = ServerSocketChannel.open();
+        server.bind(new InetSocketAddress(port));
+        server.configureBlocking(false);
+        server.register(selector, SelectionKey.OP_ACCEPT);
+        this.engineTypes = List.copyOf(engineTypes);
+        this.engines = Executors.newFixedThreadPool(engineThreads, runnable -> {
+            Thread thread = new Thread(runnable, "GameServer-engine");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    public static void main(String[] args) throws IOException {
+        AIPlayer.registerAllAIPlayers();
+        int port = args.length > 0 ? Integer.parseInt(args[0]) : DEFAULT_PORT;
+        List<String> types = new ArrayList<>(args.length > 1 ? List.of(args).subList(1, args.length)
+                : AIPlayer.getAIPlayerTypes());
+        if (args.length <= 1) {
+            Collections.sort(types); // a stable order for the engine indices
+        }
+        try (GameServer server = new GameServer(port, types, Runtime.getRuntime().availableProcessors())) {
+            System.out.println("Serving on port " + server.getPort() + ", engines " + types);
+            server.run();
+        }
+    }
+
+    /**
+     * Returns the port the server listens on.
+     *
+     * @return the local port
+     */
+    public int getPort() {
+        return server.socket().getLocalPort();
+    }
+
+    /**
+     * Serves clients on the calling thread until the server is closed or the thread is interrupted.
+     */
+    @Override
+    public void run() {
+        try {
+            while (selector.isOpen() && !Thread.currentThread().isInterrupted()) {
+                selector.select();
+                Iterator<SelectionKey> keys = selector.selectedKeys().iterator();
+                while (keys.hasNext()) {
+                    SelectionKey key = keys.next();
+                    keys.remove();
+                    if (!key.isValid()) {
+                        continue;
+                    }
+                    if (key.isAcceptable()) {
+                        accept();
+                    } else {
+                        Connection connection = (Connection) key.attachment();
+                        if (key.isWritable()) {
+                            flush(connection);
+                        }
+                        if (key.isValid() && key.isReadable()) {
+                            read(connection);
+                        }
+                    }
+                }
+                for (Session session; (session = engineResults.poll()) != null; ) {
+                    engineMoved(session);
+                }
+                while (!dirty.isEmpty()) {
+                    flush(dirty.poll());
+                }
+            }
+        } catch (ClosedSelectorException e) {
+            // closed by close
+        } catch (IOException e) {
+            if (selector.isOpen()) {
+                throw new IllegalStateException("GameServer failed", e);
+            }
+        }
+    }
+
+    /**
+     * Stops the server and closes every connection.
+     *
+     * @throws IOException if a channel can not be closed
+     */
+    @Override
+    public void close() throws IOException {
+        engines.shutdownNow();
+        for (SelectionKey key : selector.keys()) {
+            key.channel().close();
+        }
+        selector.close();
+    }
+
+    private void accept() throws IOException {
+        SocketChannel channel = server.accept();
+        if (channel == null) {
+            return;
+        }
+        channel.configureBlocking(false);
+        channel.socket().setTcpNoDelay(true); // frames are tiny and every one of them is awaited
+        SelectionKey key = channel.register(selector, SelectionKey.OP_READ);
+        key.attach(new Connection(channel, key));
+    }
+
+    private void read(Connection connection) {
+        int read;
+        try {
+            read = connection.channel.read(connection.in);
+        } catch (IOException e) {
+            read = -1;
+        }
+        if (read < 0) {
+            disconnect(connection);
+            return;
+        }
+        handleRequests(connection);
+    }
+
+    /**
+     * Handles the complete frames in the input buffer, in order, while the client's reply buffer has room.
+     * Reading stops while frames wait, so the client is throttled by TCP until its replies are sent.
+     */
+    private void handleRequests(Connection connection) {
+        ByteBuffer in = connection.in.flip();
+        while (in.remaining() >= FRAME_BYTES && connection.out.remaining() >= OUT_RESERVE && !connection.closed) {
+            byte opcode = in.get();
+            int first = in.get() & 0xFF;
+            int second = in.get() & 0xFF;
+            handle(connection, opcode, first, second);
+        }
+        in.compact();
+        if (!connection.closed) {
+            setInterest(connection, SelectionKey.OP_READ, in.position() < FRAME_BYTES);
+        }
+    }
+
+    private void handle(Connection connection, byte opcode, int first, int second) {
+        switch (opcode) {
+            case NEW_ENGINE_GAME -> newEngineGame(connection, first, second != 0);
+            case JOIN -> join(connection, first);
+            case MOVE -> clientMove(connection, first);
+            case RESIGN -> {
+                if (connection.session == null) {
+                    send(connection, REJECTED, NO_GAME, opcode);
+                } else {
+                    resign(connection.session, connection);
+                }
+            }
+            default -> send(connection, REJECTED, BAD_REQUEST, opcode);
+        }
+    }
+
+    private void newEngineGame(Connection connection, int engine, boolean clientFirst) {
+        if (connection.session != null || isWaiting(connection)) {
+            send(connection, REJECTED, IN_GAME, NEW_ENGINE_GAME);
+            return;
+        }
+        if (engine >= engineTypes.size()) {
+            send(connection, REJECTED, UNKNOWN_ENGINE, NEW_ENGINE_GAME);
+            return;
+        }
+        Player client = new HumanPlayer(clientFirst);
+        Player ai = AIPlayer.createAIPlayer(engineTypes.get(engine), !clientFirst);
+        Session session = clientFirst ? new Session(client, ai, connection, null)
+                : new Session(ai, client, null, connection);
+        connection.session = session;
+        send(connection, STARTED, clientFirst ? 1 : 0, 1);
+        if (!clientFirst) {
+            think(session);
+        }
+    }
+
+    private void join(Connection connection, int room) {
+        if (connection.session != null || isWaiting(connection)) {
+            send(connection, REJECTED, IN_GAME, JOIN);
+            return;
+        }
+        Connection opponent = waiting[room];
+        if (opponent == null) {
+            waiting[room] = connection;
+            return;
+        }
+        waiting[room] = null;
+        Session session = new Session(new HumanPlayer(true), new HumanPlayer(false), opponent, connection);
+        opponent.session = session;
+        connection.session = session;
+        send(opponent, STARTED, 1, 0);
+        send(connection, STARTED, 0, 0);
+    }
+
+    private boolean isWaiting(Connection connection) {
+        for (Connection other : waiting) {
+            if (other == connection) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private void clientMove(Connection connection, int move) {
+        Session session = connection.session;
+        if (session == null) {
+            send(connection, REJECTED, NO_GAME, MOVE);
+        } else if (session.thinking || session.connection(session.game.isFirstPlayerTurn()) != connection) {
+            send(connection, REJECTED, NOT_YOUR_TURN, MOVE);
+        } else if (PackedMove.type(move) > PackedMove.UNFLIPPABLE || !play(session, move)) {
+            send(connection, REJECTED, ILLEGAL_MOVE, MOVE);
+        }
+    }
+
+    /**
+     * Plays a move of the player to move on the GameLogic and tells both players.
+     *
+     * @return false if the rules reject the move
+     */
+    private boolean play(Session session, int move) {
+        boolean first = session.game.isFirstPlayerTurn();
+        Move decoded = PackedMove.toMove(move, session.player(first));
+        if (!session.game.locate_disc(decoded.position(), decoded.disc())) {
+            return false;
+        }
+        if (!sendBoth(session, MOVED, first ? 1 : 2, move)) {
+            return true; // a player with a full reply buffer was disconnected, which resigned the game
+        }
+        if (session.game.isGameOver()) {
+            if (sendBoth(session, OVER, session.game.getDiscCount(true), session.game.getDiscCount(false))) {
+                end(session);
+            }
+        } else if (session.connection(session.game.isFirstPlayerTurn()) == null) {
+            think(session);
+        }
+        return true;
+    }
+
+    /**
+     * Computes the engine move of a session on the engine pool; the game is not touched until it is done.
+     */
+    private void think(Session session) {
+        session.thinking = true;
+        AIPlayer engine = (AIPlayer) session.player(session.game.isFirstPlayerTurn());
+        engines.execute(() -> {
+            int move;
+            try {
+                move = PackedMove.of(engine.makeMove(session.game));
+            } catch (RuntimeException e) {
+                move = -1;
+            }
+            session.engineMove = move;
+            engineResults.add(session);
+            selector.wakeup();
+        });
+    }
+
+    private void engineMoved(Session session) {
+        session.thinking = false;
+        if (session.over) { // the client left while the engine was thinking
+            return;
+        }
+        int move = session.engineMove;
+        if (move < 0 || !play(session, move)) {
+            resign(session, null);
+        }
+    }
+
+    /**
+     * Ends a game early for the player of the given connection, or for the engine if it is null.
+     */
+    private void resign(Session session, Connection resigning) {
+        if (session.over) {
+            return;
+        }
+        boolean first = session.connection1 == resigning;
+        if (sendBoth(session, RESIGNED, first ? 1 : 2, 0)) {
+            end(session);
+        }
+    }
+
+    private void end(Session session) {
+        session.over = true;
+        if (session.connection1 != null) {
+            session.connection1.session = null;
+        }
+        if (session.connection2 != null) {
+            session.connection2.session = null;
+        }
+    }
+
+    /**
+     * Queues a frame for both players of a session. A send can disconnect a player, which resigns and ends the
+     * session; the other player then gets nothing more.
+     *
+     * @return false if the session ended while sending
+     */
+    private boolean sendBoth(Session session, byte opcode, int first, int second) {
+        send(session.connection1, opcode, first, second);
+        if (!session.over) {
+            send(session.connection2, opcode, first, second);
+        }
+        return !session.over;
+    }
+
+    /**
+     * Queues a frame for a client; a client whose reply buffer is full is disconnected.
+     */
+    private void send(Connection connection, byte opcode, int first, int second) {
+        if (connection == null || connection.closed) {
+            return;
+        }
+        if (connection.out.remaining() < FRAME_BYTES) {
+            disconnect(connection); // it does not read its replies
+            return;
+        }
+        connection.out.put(opcode).put((byte) first).put((byte) second);
+        if (!connection.dirty) {
+            connection.dirty = true;
+            dirty.add(connection);
+        }
+    }
+
+    /**
+     * Writes as many queued replies as the socket takes, then resumes the requests that waited for room.
+     */
+    private void flush(Connection connection) {
+        connection.dirty = false;
+        if (connection.closed) {
+            return;
+        }
+        ByteBuffer out = connection.out.flip();
+        try {
+            connection.channel.write(out);
+        } catch (IOException e) {
+            out.clear();
+            disconnect(connection);
+            return;
+        }
+        out.compact();
+        setInterest(connection, SelectionKey.OP_WRITE, out.position() > 0);
+        if (connection.in.position() >= FRAME_BYTES && out.remaining() >= OUT_RESERVE) {
+            handleRequests(connection); // frames left waiting by a full reply buffer
+        }
+    }
+
+    private void disconnect(Connection connection) {
+        if (connection.closed) {
+            return;
+        }
+        connection.closed = true;
+        for (int room = 0; room < ROOMS; room++) {
+            if (waiting[room] == connection) {
+                waiting[room] = null;
+            }
+        }
+        if (connection.session != null) {
+            resign(connection.session, connection);
+        }
+        connection.key.cancel();
+        try {
+            connection.channel.close();
+        } catch (IOException e) {
+            // the connection is gone either way
+        }
+    }
+
+    private static void setInterest(Connection connection, int operation, boolean on) {
+        int ops = connection.key.interestOps();
+        connection.key.interestOps(on ? ops | operation : ops & ~operation);
+    }
+}
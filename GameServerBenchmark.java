@@ -0,0 +1,153 @@
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.SocketChannel;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Measures the GameServer with localhost clients that play random moves, either against an engine or against
+ * each other. Every client follows its game on its own BitboardGameLogic, checks every reply and, when it moves
+ * first, pipelines its opening move with its request for a new game.
+ * Run with: java GameServerBenchmark [clients] [games per client] [engine type, or "peer"] [engine threads]
+ */
+public class GameServerBenchmark {
+    private static final LongAdder moves = new LongAdder();
+    private static final LongAdder roundTripNanos = new LongAdder();
+
+    public static void main(String[] args) throws IOException, InterruptedException {
+        AIPlayer.registerAllAIPlayers();
+        int clients = args.length > 0 ? Integer.parseInt(args[0]) : 64;
+        int games = args.length > 1 ? Integer.parseInt(args[1]) : 100;
+        String engine = args.length > 2 ? args[2] : "RandomAI";
+        int engineThreads = args.length > 3 ? Integer.parseInt(args[3]) : Runtime.getRuntime().availableProcessors();
+        boolean peer = engine.equals("peer");
+        List<String> engines = peer ? List.of() : List.of(engine);
+        try (GameServer server = new GameServer(0, engines, engineThreads)) {
+            Thread serving = new Thread(server, "GameServer");
+            serving.start();
+            InetSocketAddress address = new InetSocketAddress("localhost", server.getPort());
+            ExecutorService pool = Executors.newFixedThreadPool(clients);
+            List<Future<?>> results = new ArrayList<>();
+            long begin = System.nanoTime();
+            for (int i = 0; i < clients; i++) {
+                SplittableRandom random = new SplittableRandom(i);
+                boolean first = i % 2 == 0;
+                int room = i / 2 % 256; // in peer mode, clients 2k and 2k + 1 play each other
+                results.add(pool.submit(() -> {
+                    play(address, games, peer, first, room, random);
+                    return null;
+                }));
+            }
+            try {
+                for (Future<?> result : results) {
+                    result.get();
+                }
+            } catch (ExecutionException e) {
+                throw new IllegalStateException("Client failed", e.getCause());
+            } finally {
+                pool.shutdownNow();
+            }
+            double seconds = (System.nanoTime() - begin) / 1e9;
+            long total = (long) clients * games / (peer ? 2 : 1);
+            System.out.printf("%d games, %d client moves in %.1f s: %.0f games/s, %.0f moves/s, %.3f ms per move%n",
+                    total, moves.sum(), seconds, total / seconds, moves.sum() / seconds,
+                    roundTripNanos.sum() / 1e6 / Math.max(1, moves.sum()));
+        }
+    }
+
+    /**
+     * Plays games on one connection until done.
+     */
+    private static void play(InetSocketAddress address, int games, boolean peer, boolean first, int room,
+                             SplittableRandom random) throws IOException {
+        try (SocketChannel channel = SocketChannel.open(address)) {
+            channel.socket().setTcpNoDelay(true);
+            ByteBuffer out = ByteBuffer.allocateDirect(2 * GameServer.FRAME_BYTES);
+            ByteBuffer in = ByteBuffer.allocateDirect(256);
+            BitboardGameLogic mirror = new BitboardGameLogic();
+            mirror.setPlayers(new HumanPlayer(true), new HumanPlayer(false));
+            int[] legal = new int[3 * 64];
+            for (int game = 0; game < games; game++) {
+                mirror.reset();
+                out.clear();
+                if (peer) {
+                    out.put(GameServer.JOIN).put((byte) room).put((byte) 0);
+                } else {
+                    out.put(GameServer.NEW_ENGINE_GAME).put((byte) 0).put((byte) (first ? 1 : 0));
+                    if (first) { // the opening position is known, so the first move goes in the same write
+                        putMove(out, mirror, legal, random);
+                    }
+                }
+                write(channel, out);
+                boolean mine = false; // set by STARTED
+                long sent = System.nanoTime();
+                boolean over = false;
+                while (!over) {
+                    if (in.position() < GameServer.FRAME_BYTES && channel.read(in) < 0) {
+                        throw new IOException("Server closed the connection");
+                    }
+                    in.flip();
+                    while (in.remaining() >= GameServer.FRAME_BYTES && !over) {
+                        byte opcode = in.get();
+                        int a = in.get() & 0xFF;
+                        int b = in.get() & 0xFF;
+                        switch (opcode) {
+                            case GameServer.STARTED -> {
+                                mine = a == 1;
+                                if (peer && mine) {
+                                    out.clear();
+                                    putMove(out, mirror, legal, random);
+                                    write(channel, out);
+                                    sent = System.nanoTime();
+                                }
+                            }
+                            case GameServer.MOVED -> {
+                                if ((a == 1) == mine) {
+                                    moves.increment();
+                                    roundTripNanos.add(System.nanoTime() - sent);
+                                }
+                                if (!mirror.isLegal(b)) {
+                                    throw new IllegalStateException("Server played an illegal move");
+                                }
+                                mirror.makeMove(b);
+                                if (!mirror.isGameOver() && mirror.isFirstPlayerTurn() == mine) {
+                                    out.clear();
+                                    putMove(out, mirror, legal, random);
+                                    write(channel, out);
+                                    sent = System.nanoTime();
+                                }
+                            }
+                            case GameServer.OVER -> {
+                                if (a != mirror.getDiscCount(true) || b != mirror.getDiscCount(false)) {
+                                    throw new IllegalStateException("Wrong final score");
+                                }
+                                over = true;
+                            }
+                            default -> throw new IllegalStateException("Unexpected reply " + opcode + " " + a + " " + b);
+                        }
+                    }
+                    in.compact();
+                }
+            }
+        }
+    }
+
+    private static void putMove(ByteBuffer out, BitboardGameLogic game, int[] legal, SplittableRandom random) {
+        int count = game.generateMoves(legal);
+        out.put(GameServer.MOVE).put((byte) legal[random.nextInt(count)]).put((byte) 0);
+    }
+
+    private static void write(SocketChannel channel, ByteBuffer out) throws IOException {
+        out.flip();
+        while (out.hasRemaining()) {
+            channel.write(out);
+        }
+    }
+}
@@ -0,0 +1,327 @@
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * A game archive stored as an on-disk prefix trie of packed moves, so that every opening shared by many games
+ * is stored once. Every node is a move after the moves of its parent and counts the games that went through
+ * it and how many of them each player won; the root counts every game. The continuations of a line, with
+ * their win rates, are the children of its node.
+ * <p>
+ * File layout (big-endian): the magic number, the version and the number of nodes (int, int, long), then the
+ * nodes, 36 bytes each: games, first player wins, second player wins (long each), first child, next sibling
+ * (int node indices, 0 for none, as the root is never a child) and the packed move (int). The children of a
+ * node form a linked list, newest first. The nodes are memory-mapped in chunks, so appending touches only the
+ * pages of one path and the file grows a chunk at a time. It is not thread-safe.
+ * Run with: java GameTrie [trie file] [add archive files... | query packed moves...]
+ */
+public class GameTrie implements AutoCloseable {
+    private static final int MAGIC = 0x52565452; // "RVTR"
+    private static final int VERSION = 1;
+    private static final int HEADER_BYTES = 16;
+    private static final int NODE_BYTES = 36;
+    private static final int CHUNK_SHIFT = 20; // nodes per mapped chunk, a 36 MB mapping
+    private static final int CHUNK_NODES = 1 << CHUNK_SHIFT;
+    private static final int GAMES = 0;
+    private static final int FIRST_WINS = 8;
+    private static final int SECOND_WINS = 16;
+    private static final int FIRST_CHILD = 24;
+    private static final int NEXT_SIBLING = 28;
+    private static final int MOVE = 32;
+    private static final int ROOT = 0;
+    private static final int NONE = 0;
+
+    private final FileChannel channel;
+    private final MappedByteBuffer header;
+    private final List<MappedByteBuffer> chunks = new ArrayList<>();
+    private int nodes;
+
+    /**
+     * A move seen after a line, with the results of the games that played it.
+     *
+     * @param move       the packed move
+     * @param games      the number of games
+     * @param firstWins  the games won by the first player
+     * @param secondWins the games won by the second player; the rest are draws
+     */
+    public record Continuation(int move, long games, long firstWins, long secondWins) {
+        /**
+         * Returns the score of a player over these games, counting draws as half.
+         *
+         * @param firstPlayer true for the first player
+         * @return the score, from 0 to 1
+         */
+        public double score(boolean firstPlayer) {
+            long wins = firstPlayer ? firstWins : secondWins;
+            long draws = games - firstWins - secondWins;
+            return (wins + 0.5 * draws) / games;
+        }
+    }
+
+    /**
+     * Opens a trie file, creating an empty trie if the file does not exist.
+     *
+     * @param file the trie file
+     * @throws IOException if the file can not be read or written, or is not a trie
+     */
+    public GameTrie(Path file) throws IOException {
+        channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        boolean created = channel.size() == 0;
+        header = channel.map(FileChannel.MapMode.READ_WRITE, 0, HEADER_BYTES);
+        if (created) {
+            header.putInt(0, MAGIC).putInt(4, VERSION);
+            nodes = 0;
+            newNode(-1); // the root
+        } else {
+            long count = header.getLong(8);
+            if (header.getInt(0) != MAGIC || header.getInt(4) != VERSION || count < 1
+                    || channel.size() < HEADER_BYTES + count * NODE_BYTES) {
+                channel.close();
+                throw new IOException("Not a game trie: " + file);
+            }
+            nodes = (int) count;
+            chunk(nodes - 1); // maps every chunk in use
+        }
+    }
+
+    public static void main(String[] args) throws IOException {
+        Path file = Path.of(args.length > 0 ? args[0] : "games.trie");
+        boolean query = args.length > 1 && args[1].equals("query");
+        try (GameTrie trie = new GameTrie(file)) {
+            if (!query) {
+                long begin = System.nanoTime();
+                long games = 0;
+                int[] moves = new int[64];
+                for (int i = 2; i < args.length; i++) {
+                    try (GameRecordReader reader = new GameRecordReader(
+                            FileChannel.open(Path.of(args[i]), StandardOpenOption.READ))) {
+                        while (reader.next()) {
+                            for (int m = 0; m < reader.getMoveCount(); m++) {
+                                moves[m] = reader.getMove(m);
+                            }
+                            trie.add(moves, reader.getMoveCount(), reader.getFirstDiscs(), reader.getSecondDiscs());
+                            games++;
+                        }
+                    }
+                }
+                double seconds = (System.nanoTime() - begin) / 1e9;
+                System.out.printf("added %d games in %.1f s (%.0f games/s): %d games, %d nodes%n",
+                        games, seconds, games / seconds, trie.getGames(), trie.size());
+                return;
+            }
+
+            GameLogic game = new GameLogic(GameEventListener.NONE); // checks the line and finds the player to move
+            game.setPlayers(new HumanPlayer(true), new HumanPlayer(false));
+            game.reset();
+            List<Move> line = new ArrayList<>();
+            for (int i = 2; i < args.length; i++) {
+                Player player = game.isFirstPlayerTurn() ? game.getFirstPlayer() : game.getSecondPlayer();
+                Move move = PackedMove.toMove(Integer.parseInt(args[i]), player);
+                if (!game.locate_disc(move.position(), move.disc())) {
+                    throw new IllegalArgumentException("Illegal move " + move);
+                }
+                line.add(move);
+            }
+            int node = trie.find(line);
+            if (node < 0) {
+                System.out.println("No archived game played this line");
+                return;
+            }
+            boolean firstToMove = game.isFirstPlayerTurn();
+            System.out.printf("%d games, %s to move%n", trie.getGames(node), firstToMove ? "first" : "second");
+            System.out.printf("%-12s %6s %12s %8s%n", "move", "packed", "games", "score");
+            for (Continuation continuation : trie.continuations(node)) {
+                System.out.printf("%-12s %6d %12d %7.1f%%%n", PackedMove.toString(continuation.move()),
+                        continuation.move(), continuation.games(), continuation.score(firstToMove) * 100);
+            }
+        }
+    }
+
+    /**
+     * Adds a game: its line of moves is shared with the games already added as far as they agree.
+     *
+     * @param moves       the packed moves of the game, in order
+     * @param count       the number of moves
+     * @param firstDiscs  the final disc count of the first player
+     * @param secondDiscs the final disc count of the second player
+     * @throws IOException if the file can not grow
+     */
+    public void add(int[] moves, int count, int firstDiscs, int secondDiscs) throws IOException {
+        int winner = Integer.compare(firstDiscs, secondDiscs); // 1 first, -1 second, 0 draw
+        int node = ROOT;
+        count(node, winner);
+        for (int i = 0; i < count; i++) {
+            int child = child(node, moves[i]);
+            if (child == NONE) {
+                child = newNode(moves[i]);
+                put(child, NEXT_SIBLING, getInt(node, FIRST_CHILD));
+                put(node, FIRST_CHILD, child);
+            }
+            node = child;
+            count(node, winner);
+        }
+    }
+
+    /**
+     * Finds the node of a line of moves.
+     *
+     * @param moves the packed moves of the line
+     * @param count the number of moves
+     * @return the node, or -1 if no game played the line
+     */
+    public int find(int[] moves, int count) {
+        int node = ROOT;
+        for (int i = 0; i < count; i++) {
+            node = child(node, moves[i]);
+            if (node == NONE) {
+                return -1;
+            }
+        }
+        return node;
+    }
+
+    /**
+     * Finds the node of a line of moves.
+     *
+     * @param line the moves of the line, from the initial position
+     * @return the node, or -1 if no game played the line
+     */
+    public int find(List<Move> line) {
+        int[] moves = new int[line.size()];
+        for (int i = 0; i < moves.length; i++) {
+            moves[i] = PackedMove.of(line.get(i));
+        }
+        return find(moves, moves.length);
+    }
+
+    /**
+     * Lists the moves played after the line of a node, the most played first.
+     *
+     * @param node a node from find
+     * @return the continuations
+     */
+    public List<Continuation> continuations(int node) {
+        List<Continuation> result = new ArrayList<>();
+        for (int child = getInt(node, FIRST_CHILD); child != NONE; child = getInt(child, NEXT_SIBLING)) {
+            result.add(new Continuation(getInt(child, MOVE), getLong(child, GAMES), getLong(child, FIRST_WINS),
+                    getLong(child, SECOND_WINS)));
+        }
+        result.sort(Comparator.comparingLong(Continuation::games).reversed());
+        return result;
+    }
+
+    /**
+     * Returns the number of games that played the line of a node.
+     *
+     * @param node a node from find
+     * @return the number of games
+     */
+    public long getGames(int node) {
+        return getLong(node, GAMES);
+    }
+
+    /**
+     * Returns the number of games in the trie.
+     *
+     * @return the number of games
+     */
+    public long getGames() {
+        return getGames(ROOT);
+    }
+
+    /**
+     * Returns the number of nodes, the root included.
+     *
+     * @return the node count
+     */
+    public int size() {
+        return nodes;
+    }
+
+    /**
+     * Writes the node count and the mapped pages to the file and closes it.
+     *
+     * @throws IOException if the file can not be written
+     */
+    @Override
+    public void close() throws IOException {
+        header.putLong(8, nodes);
+        header.force();
+        for (MappedByteBuffer chunk : chunks) {
+            chunk.force();
+        }
+        channel.close();
+    }
+
+    private void count(int node, int winner) {
+        put(node, GAMES, getLong(node, GAMES) + 1);
+        if (winner != 0) {
+            int field = winner > 0 ? FIRST_WINS : SECOND_WINS;
+            put(node, field, getLong(node, field) + 1);
+        }
+    }
+
+    /**
+     * Finds the child of a node that plays a move.
+     *
+     * @return the child, or NONE
+     */
+    private int child(int node, int move) {
+        int child = getInt(node, FIRST_CHILD);
+        while (child != NONE && getInt(child, MOVE) != move) {
+            child = getInt(child, NEXT_SIBLING);
+        }
+        return child;
+    }
+
+    /**
+     * Appends a node without children or results, mapping a new chunk when the last one is full.
+     */
+    private int newNode(int move) throws IOException {
+        if (nodes == Integer.MAX_VALUE) {
+            throw new IllegalStateException("GameTrie is full");
+        }
+        int node = nodes++;
+        ByteBuffer chunk = chunk(node);
+        int base = offset(node);
+        chunk.putLong(base + GAMES, 0).putLong(base + FIRST_WINS, 0).putLong(base + SECOND_WINS, 0)
+                .putInt(base + FIRST_CHILD, NONE).putInt(base + NEXT_SIBLING, NONE).putInt(base + MOVE, move);
+        header.putLong(8, nodes);
+        return node;
+    }
+
+    private ByteBuffer chunk(int node) throws IOException {
+        int index = node >>> CHUNK_SHIFT;
+        while (chunks.size() <= index) { // mapping past the end of the file grows it
+            long position = HEADER_BYTES + (long) chunks.size() * CHUNK_NODES * NODE_BYTES;
+            chunks.add(channel.map(FileChannel.MapMode.READ_WRITE, position, (long) CHUNK_NODES * NODE_BYTES));
+        }
+        return chunks.get(index);
+    }
+
+    private static int offset(int node) {
+        return (node & (CHUNK_NODES - 1)) * NODE_BYTES;
+    }
+
+    private int getInt(int node, int field) {
+        return chunks.get(node >>> CHUNK_SHIFT).getInt(offset(node) + field);
+    }
+
+    private long getLong(int node, int field) {
+        return chunks.get(node >>> CHUNK_SHIFT).getLong(offset(node) + field);
+    }
+
+    private void put(int node, int field, int value) {
+        chunks.get(node >>> CHUNK_SHIFT).putInt(offset(node) + field, value);
+    }
+
+    private void put(int node, int field, long value) {
+        chunks.get(node >>> CHUNK_SHIFT).putLong(offset(node) + field, value);
+    }
+}
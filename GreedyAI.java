@@ -46,7 +46,7 @@ public class GreedyAI extends AIPlayer {
             }
 
             // Decide to use a BombDisc if surrounded by many opponent discs
-            if (gameStatus.countFlips(move) > 3 && getNumber_of_bombs() > 0) {
+            if (flips > 3 && getNumber_of_bombs() > 0) {
                 useBomb = true;
             }
         }
@@ -0,0 +1,93 @@
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * A small command line benchmark for LazySmpSearch: the time to reach a fixed depth with 1, 2, 4, ... threads.
+ * Every thread count searches the same middle-game positions from an empty transposition table, and the speedup
+ * is the single-threaded time divided by the time with that many threads.
+ * Run with: java LazySmpBenchmark [depth] [max threads] [positions]
+ */
+public class LazySmpBenchmark {
+    private static final int TABLE_MEGABYTES = 64;
+    private static final int OPENING_MOVES = 12; // the random moves played to reach every position
+    private static final long NO_TIME_LIMIT = Long.MAX_VALUE; // the search stops on depth only
+
+    public static void main(String[] args) {
+        int depth = args.length > 0 ? Integer.parseInt(args[0]) : 7;
+        int maxThreads = args.length > 1 ? Integer.parseInt(args[1]) : Runtime.getRuntime().availableProcessors();
+        int count = args.length > 2 ? Integer.parseInt(args[2]) : 8;
+        new LazySmpBenchmark().run(depth, maxThreads, count);
+    }
+
+    /**
+     * Runs the benchmark and prints one line per thread count.
+     *
+     * @param depth      the depth every search has to complete
+     * @param maxThreads the largest thread count to measure
+     * @param count      the number of positions
+     */
+    private void run(int depth, int maxThreads, int count) {
+        List<BitboardGameLogic> positions = positions(new Random(42), count); // fixed seed: same positions every run
+        TranspositionTable table = new TranspositionTable(TABLE_MEGABYTES);
+        timeToDepth(positions, table, depth, 1); // warm up
+
+        System.out.printf("%-8s %12s %14s %10s%n", "threads", "ms to depth", "nodes", "speedup");
+        double singleThreaded = 0;
+        for (int threads = 1; threads <= maxThreads; threads *= 2) {
+            long[] nodes = new long[1];
+            double millis = timeToDepth(positions, table, depth, threads, nodes);
+            if (threads == 1) {
+                singleThreaded = millis;
+            }
+            System.out.printf("%-8d %12.1f %14d %9.2fx%n", threads, millis, nodes[0], singleThreaded / millis);
+        }
+    }
+
+    private double timeToDepth(List<BitboardGameLogic> positions, TranspositionTable table, int depth, int threads) {
+        return timeToDepth(positions, table, depth, threads, new long[1]);
+    }
+
+    /**
+     * Searches every position to the given depth and returns the total wall time.
+     *
+     * @param nodes receives the total number of nodes visited
+     * @return the time in milliseconds
+     */
+    private double timeToDepth(List<BitboardGameLogic> positions, TranspositionTable table, int depth, int threads,
+                               long[] nodes) {
+        LazySmpSearch search = new LazySmpSearch(table, threads);
+        long elapsed = 0;
+        for (BitboardGameLogic position : positions) {
+            table.clear();
+            long begin = System.nanoTime();
+            search.search(BitboardGameLogic.copyOf(position), NO_TIME_LIMIT, depth);
+            elapsed += System.nanoTime() - begin;
+            nodes[0] += search.getNodes();
+        }
+        return elapsed / 1e6;
+    }
+
+    /**
+     * Plays random opening moves from the start position.
+     *
+     * @return positions in which the player to move has a valid move
+     */
+    private static List<BitboardGameLogic> positions(Random random, int count) {
+        List<BitboardGameLogic> positions = new ArrayList<>();
+        int[] moves = new int[3 * 64];
+        while (positions.size() < count) {
+            BitboardGameLogic game = new BitboardGameLogic();
+            game.setPlayers(new HumanPlayer(true), new HumanPlayer(false));
+            game.reset();
+            for (int i = 0; i < OPENING_MOVES && !game.isGameOver(); i++) {
+                int moveCount = game.generateMoves(moves);
+                game.makeMove(moves[random.nextInt(moveCount)]);
+            }
+            if (!game.isGameOver()) {
+                positions.add(BitboardGameLogic.copyOf(game));
+            }
+        }
+        return positions;
+    }
+}
@@ -0,0 +1,135 @@
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * The LazySmpSearch class runs an AlphaBetaSearch on several threads in the Lazy SMP style.
+ * Every thread searches the same position on its own copy of the game; they share nothing but the
+ * TranspositionTable, through which the helpers pass on the positions they have already resolved.
+ * Every other helper starts one ply deeper than the main search, so the helpers spread over several depths.
+ * The calling thread runs the main search; when it returns the helpers are stopped, and the result of the
+ * deepest completed iteration is played (the main search wins ties).
+ */
+public class LazySmpSearch {
+    private static final ExecutorService POOL = Executors.newCachedThreadPool(runnable -> {
+        Thread thread = new Thread(runnable, "lazy-smp-helper");
+        thread.setDaemon(true);
+        return thread;
+    }); // shared by all searches; idle threads end after a minute
+
+    private final TranspositionTable table;
+    private final AlphaBetaSearch[] searches; // searches[0] is the main search
+    private int completedDepth;
+    private int bestScore;
+    private long nodes;
+
+    /**
+     * Constructs a new LazySmpSearch with the hand-written evaluation.
+     *
+     * @param table   the transposition table shared by all the threads
+     * @param threads the number of search threads, including the calling thread
+     */
+    public LazySmpSearch(TranspositionTable table, int threads) {
+        this(table, threads, Evaluator.HEURISTIC);
+    }
+
+    /**
+     * Constructs a new LazySmpSearch.
+     *
+     * @param table     the transposition table shared by all the threads
+     * @param threads   the number of search threads, including the calling thread
+     * @param evaluator the evaluation shared by all the threads
+     */
+    public LazySmpSearch(TranspositionTable table, int threads, Evaluator evaluator) {
+        this.table = table;
+        this.searches = new AlphaBetaSearch[Math.max(1, threads)];
+        for (int i = 0; i < searches.length; i++) {
+            searches[i] = new AlphaBetaSearch(table, evaluator);
+        }
+    }
+
+    /**
+     * Searches a position on every thread until the time budget runs out or the main search reaches the
+     * maximum depth.
+     *
+     * @param game             the position to search; it is copied for every helper and not changed
+     * @param timeBudgetMillis the time budget in milliseconds
+     * @param maxDepth         the maximum depth in plies
+     * @return the best packed move found, or AlphaBetaSearch.NO_MOVE if the player to move has no valid move
+     */
+    public int search(BitboardGameLogic game, long timeBudgetMillis, int maxDepth) {
+        table.newSearch();
+        List<Future<Integer>> helpers = new ArrayList<>(searches.length - 1);
+        for (int i = 1; i < searches.length; i++) {
+            AlphaBetaSearch helper = searches[i];
+            helper.clearStop(); // before the helper is submitted, so that a stop arriving before it starts holds
+            BitboardGameLogic copy = BitboardGameLogic.copyOf(game);
+            int firstDepth = 1 + i % 2;
+            helpers.add(POOL.submit(() -> helper.search(copy, timeBudgetMillis, maxDepth, firstDepth)));
+        }
+        int bestMove = searches[0].search(game, timeBudgetMillis, maxDepth);
+        AlphaBetaSearch best = searches[0];
+        nodes = best.getNodes();
+        for (int i = 1; i < searches.length; i++) {
+            searches[i].stop();
+        }
+        for (int i = 1; i < searches.length; i++) {
+            try {
+                int move = helpers.get(i - 1).get();
+                AlphaBetaSearch helper = searches[i];
+                nodes += helper.getNodes();
+                if (helper.getCompletedDepth() > best.getCompletedDepth()) {
+                    best = helper;
+                    bestMove = move;
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            } catch (ExecutionException e) {
+                throw new IllegalStateException("Lazy SMP helper failed", e.getCause());
+            }
+        }
+        completedDepth = best.getCompletedDepth();
+        bestScore = best.getBestScore();
+        return bestMove;
+    }
+
+    /**
+     * Returns the number of threads of the search.
+     *
+     * @return the thread count, including the calling thread
+     */
+    public int getThreads() {
+        return searches.length;
+    }
+
+    /**
+     * Returns the depth of the move played by the last search.
+     *
+     * @return the completed depth in plies
+     */
+    public int getCompletedDepth() {
+        return completedDepth;
+    }
+
+    /**
+     * Returns the score of the last search, from the point of view of the player who was to move.
+     *
+     * @return the score of the move played
+     */
+    public int getBestScore() {
+        return bestScore;
+    }
+
+    /**
+     * Returns the number of positions visited by the last search, over all threads.
+     *
+     * @return the node count
+     */
+    public long getNodes() {
+        return nodes;
+    }
+}
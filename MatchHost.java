@@ -0,0 +1,310 @@
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Hosts many games at once in one JVM, without the GUI.
+ * Every game session runs on its own virtual thread, so a session that waits for a human move costs no
+ * platform thread: a MoveInput may simply block until the move arrives. The moves of AIPlayer seats are
+ * computed on a small fixed pool of platform threads, so that searches never occupy the carrier threads
+ * that run the sessions, and the session thread parks until the move is ready. The engines search on a single
+ * thread (see AIPlayer.createSingleThreadedAIPlayer), so the pool bounds the cores the searches use.
+ * A new session is admitted only while fewer than the maximum number of sessions run and while the memory
+ * reserved for the sessions stays within the budget; every session reserves the footprint of its game and
+ * players for a full game when it is admitted, and releases it when it ends. The footprint of a player is
+ * what AIPlayer.getFootprintBytes reports; the tables shared by every player of a class are reserved once, by
+ * the first session that seats one, and stay reserved. A player whose memory has no bound, such as an MctsAI
+ * without a playout budget, is refused.
+ * Requires Java 21.
+ * Run with: java MatchHost [sessions] [AIPlayer type] [engine threads] [max sessions] [human think millis]
+ */
+public class MatchHost implements AutoCloseable {
+    private static final long GAME_BYTES = 17_000; // a GameLogic with its flip history and two players
+    private static final long MOVE_BYTES = 64; // a Move, its Position and its Disc in the move history
+    private static final int MAX_PLY = 64; // every move fills one square
+    private static final long MCTS_PLAYOUTS = 1_000; // the playout budget of the MctsAI seats of main
+
+    /**
+     * The source of the moves of the HumanPlayer seats of a session.
+     * It is called on the virtual thread of the session and may block until the player has decided; the game
+     * must not be used after the call returns.
+     */
+    @FunctionalInterface
+    public interface MoveInput {
+        /**
+         * Waits for the next move of a human player.
+         *
+         * @param game   the game, with the player to move
+         * @param player the player to move
+         * @return the move, which must be valid, or null to abandon the session
+         * @throws InterruptedException if the host is closed while waiting
+         */
+        Move nextMove(PlayableLogic game, Player player) throws InterruptedException;
+    }
+
+    private final ExecutorService sessions = Executors.newVirtualThreadPerTaskExecutor();
+    private final ExecutorService engines;
+    private final int engineThreads;
+    private final Semaphore admission;
+    private final long memoryBudget;
+    private final AtomicLong reservedBytes = new AtomicLong(); // the worst-case footprint of the sessions and tables
+    private final AtomicLong usedBytes = new AtomicLong(); // the current footprint of the sessions and tables
+    private final Set<Class<?>> sharedReserved = ConcurrentHashMap.newKeySet(); // the classes whose tables count
+    private final AtomicInteger active = new AtomicInteger();
+    private final AtomicInteger peakActive = new AtomicInteger();
+    private final LongAdder started = new LongAdder();
+    private final LongAdder finished = new LongAdder();
+    private final LongAdder abandoned = new LongAdder();
+    private final LongAdder rejected = new LongAdder();
+    private final LongAdder moves = new LongAdder();
+    private final LongAdder engineMoves = new LongAdder();
+    private final LongAdder engineNanos = new LongAdder();
+    private final long begin = System.nanoTime();
+
+    /**
+     * Constructs a new MatchHost.
+     *
+     * @param engineThreads the number of platform threads that compute the moves of AIPlayer seats
+     * @param maxSessions   the largest number of sessions that run at once
+     * @param memoryBudget  the largest number of bytes the running sessions may reserve
+     */
+    public MatchHost(int engineThreads, int maxSessions, long memoryBudget) {
+        this.engineThreads = engineThreads;
+        this.engines = Executors.newFixedThreadPool(engineThreads);
+        this.admission = new Semaphore(maxSessions);
+        this.memoryBudget = memoryBudget;
+    }
+
+    public static void main(String[] args) throws InterruptedException {
+        AIPlayer.registerAllAIPlayers();
+        int count = args.length > 0 ? Integer.parseInt(args[0]) : 20_000;
+        String engineType = args.length > 1 ? args[1] : "GreedyAI";
+        int engineThreads = args.length > 2 ? Integer.parseInt(args[2]) : Runtime.getRuntime().availableProcessors();
+        int maxSessions = args.length > 3 ? Integer.parseInt(args[3]) : 50_000;
+        long thinkMillis = args.length > 4 ? Long.parseLong(args[4]) : 200;
+        MoveInput casualHuman = (game, player) -> { // thinks a while, then plays a random valid move
+            Thread.sleep(ThreadLocalRandom.current().nextLong(thinkMillis + 1));
+            List<Position> valid = game.ValidMoves();
+            Position position = valid.get(ThreadLocalRandom.current().nextInt(valid.size()));
+            return new Move(position, new SimpleDisc(player));
+        };
+        long budget = Runtime.getRuntime().maxMemory() / 2;
+        try (MatchHost host = new MatchHost(engineThreads, maxSessions, budget)) {
+            List<Future<Player>> results = new ArrayList<>();
+            for (int i = 0; i < count; i++) {
+                boolean humanFirst = i % 2 == 0; // alternate colours
+                Player first = humanFirst ? new HumanPlayer(true) : createEngine(engineType, true);
+                Player second = humanFirst ? createEngine(engineType, false) : new HumanPlayer(false);
+                try {
+                    results.add(host.open(first, second, casualHuman));
+                } catch (RejectedExecutionException e) {
+                    // counted by the host
+                }
+            }
+            System.out.printf("%d sessions running, %d rejected, %.1f MB reserved%n",
+                    host.getActiveSessions(), host.getRejectedSessions(), host.getReservedBytes() / 1e6);
+            for (Future<Player> result : results) {
+                try {
+                    result.get();
+                } catch (ExecutionException e) {
+                    throw new IllegalStateException("Session failed", e.getCause());
+                }
+            }
+            System.out.println(host);
+        }
+    }
+
+    /**
+     * Creates an engine seat that searches on a single thread and whose memory has a bound.
+     */
+    private static AIPlayer createEngine(String type, boolean isPlayerOne) {
+        AIPlayer engine = AIPlayer.createSingleThreadedAIPlayer(type, isPlayerOne);
+        if (engine instanceof MctsAI) { // bound its tree with a playout budget
+            engine = new MctsAI(isPlayerOne, MctsSearch.Mode.TREE, 1, MctsSearch.DEFAULT_EXPLORATION,
+                    MctsAI.DEFAULT_TIME_BUDGET_MILLIS, MCTS_PLAYOUTS);
+        }
+        return engine;
+    }
+
+    /**
+     * Starts a new session on its own virtual thread; the game starts from the initial position.
+     *
+     * @param player1 the first player; an AIPlayer plays on the engine pool, any other player through input
+     * @param player2 the second player
+     * @param input   the moves of the players that are not AIPlayers, or null if both are
+     * @return the winner of the game, or null if the session was abandoned
+     * @throws RejectedExecutionException if the host is full, over its memory budget or closed
+     * @throws IllegalArgumentException   if the memory of a player has no bound
+     */
+    public Future<Player> open(Player player1, Player player2, MoveInput input) {
+        if (footprint(player1) < 0 || footprint(player2) < 0) {
+            throw new IllegalArgumentException("A player of the session has no memory bound");
+        }
+        reserveShared(player1);
+        reserveShared(player2);
+        long reserved = GAME_BYTES + MAX_PLY * MOVE_BYTES + footprint(player1) + footprint(player2);
+        if (!admission.tryAcquire()) {
+            rejected.increment();
+            throw new RejectedExecutionException("Too many sessions");
+        }
+        if (reservedBytes.addAndGet(reserved) > memoryBudget) {
+            release(reserved, 0);
+            rejected.increment();
+            throw new RejectedExecutionException("Memory budget exhausted");
+        }
+        int nowActive = active.incrementAndGet(); // before submit, so that a quick session never counts below 0
+        Future<Player> session;
+        try {
+            session = sessions.submit(() -> run(player1, player2, input, reserved));
+        } catch (RejectedExecutionException e) {
+            release(reserved, 0);
+            active.decrementAndGet();
+            rejected.increment();
+            throw e;
+        }
+        started.increment();
+        peakActive.accumulateAndGet(nowActive, Math::max);
+        return session;
+    }
+
+    /**
+     * Plays one session to the end on the virtual thread of the session.
+     */
+    private Player run(Player player1, Player player2, MoveInput input, long reserved) throws Exception {
+        long used = GAME_BYTES + footprint(player1) + footprint(player2);
+        usedBytes.addAndGet(used);
+        try {
+            GameLogic game = new GameLogic(GameEventListener.NONE);
+            game.setPlayers(player1, player2);
+            game.reset();
+            while (!game.isGameOver()) {
+                Player current = game.isFirstPlayerTurn() ? player1 : player2;
+                Move move = current instanceof AIPlayer ai ? engineMove(ai, game) : input.nextMove(game, current);
+                if (move == null) {
+                    abandoned.increment();
+                    return null;
+                }
+                if (!game.locate_disc(move.position(), move.disc())) {
+                    throw new IllegalStateException("Invalid move " + move);
+                }
+                moves.increment();
+                usedBytes.addAndGet(MOVE_BYTES);
+                used += MOVE_BYTES;
+            }
+            finished.increment();
+            return game.getWinner();
+        } finally {
+            release(reserved, used);
+            active.decrementAndGet();
+        }
+    }
+
+    /**
+     * Computes the move of an AIPlayer on the engine pool while the session thread waits.
+     */
+    private Move engineMove(AIPlayer ai, GameLogic game) throws InterruptedException, ExecutionException {
+        long start = System.nanoTime();
+        Move move = engines.submit(() -> ai.makeMove(game)).get(); // the game is only used by one thread at a time
+        engineNanos.add(System.nanoTime() - start);
+        engineMoves.increment();
+        return move;
+    }
+
+    private void release(long reserved, long used) {
+        reservedBytes.addAndGet(-reserved);
+        usedBytes.addAndGet(-used);
+        admission.release();
+    }
+
+    /**
+     * Returns the memory a player needs besides the game and the tables it shares, or -1 if it has no bound.
+     */
+    private static long footprint(Player player) {
+        return player instanceof AIPlayer ai ? ai.getFootprintBytes() : 0;
+    }
+
+    /**
+     * Reserves the shared tables of the class of a player the first time a session seats one; they live as long
+     * as the class, so they are never released.
+     */
+    private void reserveShared(Player player) {
+        if (player instanceof AIPlayer ai && sharedReserved.add(ai.getClass())) {
+            long shared = ai.getSharedFootprintBytes();
+            reservedBytes.addAndGet(shared);
+            usedBytes.addAndGet(shared);
+        }
+    }
+
+    public int getActiveSessions() {
+        return active.get();
+    }
+
+    public int getPeakActiveSessions() {
+        return peakActive.get();
+    }
+
+    public long getStartedSessions() {
+        return started.sum();
+    }
+
+    public long getFinishedSessions() {
+        return finished.sum();
+    }
+
+    public long getRejectedSessions() {
+        return rejected.sum();
+    }
+
+    public long getMoves() {
+        return moves.sum();
+    }
+
+    public long getReservedBytes() {
+        return reservedBytes.get();
+    }
+
+    public long getUsedBytes() {
+        return usedBytes.get();
+    }
+
+    /**
+     * Returns the mean time an AIPlayer move took, including the wait for a free engine thread.
+     *
+     * @return the mean engine move latency in milliseconds
+     */
+    public double getMeanEngineMillis() {
+        long count = engineMoves.sum();
+        return count == 0 ? 0 : engineNanos.sum() / 1e6 / count;
+    }
+
+    /**
+     * Stops the host: running sessions are interrupted and waiting engine moves are cancelled.
+     */
+    @Override
+    public void close() {
+        sessions.shutdownNow();
+        engines.shutdownNow();
+    }
+
+    @Override
+    public String toString() {
+        double seconds = (System.nanoTime() - begin) / 1e9;
+        return String.format("MatchHost{engineThreads=%d, started=%d, finished=%d, abandoned=%d, rejected=%d, "
+                        + "active=%d, peakActive=%d, reservedMB=%.1f, usedMB=%.1f, games/s=%.1f, moves/s=%.0f, "
+                        + "engineMs=%.2f}", engineThreads, getStartedSessions(), getFinishedSessions(),
+                abandoned.sum(), getRejectedSessions(), getActiveSessions(), getPeakActiveSessions(),
+                getReservedBytes() / 1e6, getUsedBytes() / 1e6, getFinishedSessions() / seconds,
+                getMoves() / seconds, getMeanEngineMillis());
+    }
+}
@@ -0,0 +1,82 @@
+/**
+ * Represents an MctsAI player in the Reversi game.
+ * This AI player chooses its moves with a multi-threaded Monte Carlo Tree Search (see MctsSearch), which
+ * judges positions by playing them out instead of by a static evaluation, so it copes with bomb cascades.
+ * By default it grows one shared tree on every core for a fixed time per move.
+ */
+public class MctsAI extends AIPlayer {
+    public static final long DEFAULT_TIME_BUDGET_MILLIS = 500; // the time budget of one move
+
+    private final MctsSearch search;
+    private final long timeBudgetMillis;
+    private final long playoutBudget;
+
+    /**
+     * Constructs an MctsAI player that uses every core with a shared tree and the default time budget.
+     *
+     * @param isPlayerOne a boolean indicating whether this player is Player One (true) or Player Two (false)
+     */
+    public MctsAI(boolean isPlayerOne) {
+        this(isPlayerOne, MctsSearch.Mode.TREE, Runtime.getRuntime().availableProcessors(),
+                MctsSearch.DEFAULT_EXPLORATION, DEFAULT_TIME_BUDGET_MILLIS, 0);
+    }
+
+    /**
+     * Constructs an MctsAI player.
+     *
+     * @param isPlayerOne      a boolean indicating whether this player is Player One (true) or Player Two (false)
+     * @param mode             ROOT or TREE parallelisation
+     * @param threads          the number of search threads
+     * @param exploration      the UCT exploration constant
+     * @param timeBudgetMillis the time budget of one move in milliseconds, or 0 for no time limit
+     * @param playoutBudget    the playouts of one move, or 0 for no playout limit
+     */
+    public MctsAI(boolean isPlayerOne, MctsSearch.Mode mode, int threads, double exploration,
+                  long timeBudgetMillis, long playoutBudget) {
+        super(isPlayerOne);
+        this.search = new MctsSearch(mode, threads, exploration);
+        this.timeBudgetMillis = timeBudgetMillis;
+        this.playoutBudget = playoutBudget;
+    }
+
+    /**
+     * Determines the move of the MctsAI player by searching a copy of the current game state.
+     * The game and the players are not changed.
+     *
+     * @param gameStatus the current game state, represented by an implementation of the PlayableLogic interface
+     * @return a Move object representing the chosen move and the type of disc to be placed,
+     *         or null if no valid moves are available
+     */
+    @Override
+    public Move makeMove(PlayableLogic gameStatus) {
+        int move = search.search(BitboardGameLogic.copyOf(gameStatus), timeBudgetMillis, playoutBudget);
+        if (move == MctsSearch.NO_MOVE) {
+            return null; // No valid moves, return null
+        }
+        int type = PackedMove.type(move);
+        if ((type == PackedMove.BOMB && getNumber_of_bombs() <= 0)
+                || (type == PackedMove.UNFLIPPABLE && getNumber_of_unflippedable() <= 0)) {
+            move = PackedMove.of(PackedMove.square(move), PackedMove.SIMPLE); // the copy's inventory was out of date
+        }
+        return PackedMove.toMove(move, this);
+    }
+
+    /**
+     * Returns the most memory the tree of one move can take, which only a playout budget bounds.
+     *
+     * @return the footprint in bytes, or -1 without a playout budget
+     */
+    @Override
+    public long getFootprintBytes() {
+        return playoutBudget > 0 ? search.maxTreeBytes(playoutBudget) : -1;
+    }
+
+    /**
+     * Returns the search used by this player, to read its statistics after a move.
+     *
+     * @return the search of this player
+     */
+    public MctsSearch getSearch() {
+        return search;
+    }
+}
@@ -0,0 +1,311 @@
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * The MctsSearch class chooses a move with Monte Carlo Tree Search: it selects a path through the tree with UCT,
+ * expands a leaf, plays the rest of the game randomly and counts the win along the path.
+ * It runs on several threads in one of two modes:
+ * ROOT parallelisation grows one independent tree per thread and adds up the root visits when it decides;
+ * TREE parallelisation grows a single shared tree, whose node statistics are updated lock-free and which uses
+ * virtual loss to spread the threads over different paths.
+ * A search stops after a number of playouts, after a time budget, or at whichever comes first.
+ * A single-threaded search runs on the calling thread; more threads run on a shared pool.
+ */
+public class MctsSearch {
+    public enum Mode { ROOT, TREE }
+
+    public static final double DEFAULT_EXPLORATION = Math.sqrt(2); // the UCT exploration constant
+    public static final int NO_MOVE = -1; // returned when the player to move has no valid move
+    private static final int VIRTUAL_LOSS = 3; // the visits added while a thread is inside a node
+    private static final int MAX_PLY = 64; // every move fills one square
+    private static final int MAX_MOVES = 3 * 64; // every square with each of the 3 disc types
+    private static final long NODE_BYTES = 32; // the header, move, stats and children of a Node
+    private static final long EXPANSION_BYTES = 16 + MAX_MOVES * (Integer.BYTES + NODE_BYTES); // the most one adds
+
+    private static final ExecutorService POOL = Executors.newCachedThreadPool(runnable -> {
+        Thread thread = new Thread(runnable, "mcts-worker");
+        thread.setDaemon(true);
+        return thread;
+    }); // shared by all searches; idle threads end after a minute
+
+    private final Mode mode;
+    private final int threads;
+    private final double exploration;
+    private long playouts; // the playouts of the last search
+
+    /**
+     * Constructs a new MctsSearch.
+     *
+     * @param mode        ROOT or TREE parallelisation
+     * @param threads     the number of search threads
+     * @param exploration the UCT exploration constant
+     */
+    public MctsSearch(Mode mode, int threads, double exploration) {
+        this.mode = mode;
+        this.threads = Math.max(1, threads);
+        this.exploration = exploration;
+    }
+
+    /**
+     * Searches a position and returns the root move with the most visits.
+     *
+     * @param game             the position to search; it is copied for every thread and not changed
+     * @param timeBudgetMillis the time budget in milliseconds, or 0 for no time limit
+     * @param playoutBudget    the total number of playouts, or 0 for no playout limit
+     * @return the chosen packed move, or NO_MOVE if the player to move has no valid move
+     */
+    public int search(BitboardGameLogic game, long timeBudgetMillis, long playoutBudget) {
+        if (timeBudgetMillis <= 0 && playoutBudget <= 0) {
+            throw new IllegalArgumentException("A search needs a time or a playout budget");
+        }
+        int[] rootMoves = new int[MAX_MOVES];
+        int count = game.generateMoves(rootMoves);
+        if (count == 0) {
+            return NO_MOVE;
+        }
+        if (count == 1) {
+            playouts = 0;
+            return rootMoves[0];
+        }
+        long deadline = timeBudgetMillis > 0 ? System.nanoTime() + timeBudgetMillis * 1_000_000L : Long.MAX_VALUE;
+        long quota = playoutBudget > 0 ? Math.max(1, playoutBudget / threads) : Long.MAX_VALUE;
+
+        Node sharedRoot = mode == Mode.TREE ? Node.root(rootMoves, count) : null;
+        List<Worker> workers = new ArrayList<>(threads);
+        for (int i = 0; i < threads; i++) {
+            Node root = sharedRoot != null ? sharedRoot : Node.root(rootMoves, count);
+            int virtualLoss = sharedRoot != null && threads > 1 ? VIRTUAL_LOSS : 0;
+            Worker worker = new Worker(BitboardGameLogic.copyOf(game), root, virtualLoss, deadline, quota,
+                    new SplittableRandom(System.nanoTime() + i));
+            workers.add(worker);
+        }
+
+        long[] visits = new long[count]; // the root visits of every move, added up over the trees
+        long total = 0;
+        try {
+            List<Node> roots = new ArrayList<>();
+            if (threads == 1) {
+                roots.add(workers.get(0).call());
+            } else {
+                for (Future<Node> future : POOL.invokeAll(workers)) {
+                    Node root = future.get();
+                    if (!roots.contains(root)) {
+                        roots.add(root);
+                    }
+                }
+            }
+            for (Node root : roots) {
+                total += root.visits();
+                for (int i = 0; i < count; i++) {
+                    visits[i] += root.children[i].visits(); // every root has the children of rootMoves
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("MCTS worker failed", e.getCause());
+        }
+        playouts = total;
+
+        int best = 0;
+        for (int i = 1; i < count; i++) {
+            if (visits[i] > visits[best]) {
+                best = i;
+            }
+        }
+        return rootMoves[best];
+    }
+
+    /**
+     * Returns the most memory the trees of one search can take: every playout expands at most one node, every
+     * thread runs at least one playout and every tree expands its root first.
+     *
+     * @param playoutBudget the playouts of the search
+     * @return the bound in bytes
+     */
+    public long maxTreeBytes(long playoutBudget) {
+        return (playoutBudget + 2L * threads) * EXPANSION_BYTES;
+    }
+
+    /**
+     * Returns the number of playouts of the last search, over all threads.
+     *
+     * @return the playout count
+     */
+    public long getPlayouts() {
+        return playouts;
+    }
+
+    /**
+     * A node of the tree. Its visits and wins are packed in one long (visits in the high 32 bits), so both
+     * are updated together by a single atomic add. The wins are counted for the player who made the move
+     * that leads to the node. The children are created once, by the first thread that publishes them.
+     */
+    private static final class Node {
+        private static final VarHandle STATS;
+        private static final VarHandle CHILDREN;
+
+        static {
+            try {
+                MethodHandles.Lookup lookup = MethodHandles.lookup();
+                STATS = lookup.findVarHandle(Node.class, "stats", long.class);
+                CHILDREN = lookup.findVarHandle(Node.class, "children", Node[].class);
+            } catch (ReflectiveOperationException e) {
+                throw new ExceptionInInitializerError(e);
+            }
+        }
+
+        final int move; // the packed move that leads to this node
+        volatile long stats;
+        volatile Node[] children; // null until the node is expanded; empty if the game is over
+
+        Node(int move) {
+            this.move = move;
+        }
+
+        static Node root(int[] moves, int count) {
+            Node root = new Node(NO_MOVE);
+            root.expand(moves, count);
+            return root;
+        }
+
+        long visits() {
+            return stats >>> 32;
+        }
+
+        void addVirtualLoss(int virtualLoss) {
+            STATS.getAndAdd(this, (long) virtualLoss << 32);
+        }
+
+        void update(int win, int virtualLoss) {
+            STATS.getAndAdd(this, ((long) (1 - virtualLoss) << 32) + win);
+        }
+
+        /**
+         * Publishes the children of the given moves, unless another thread did it first.
+         *
+         * @return the children of the node
+         */
+        Node[] expand(int[] moves, int count) {
+            Node[] created = new Node[count];
+            for (int i = 0; i < count; i++) {
+                created[i] = new Node(moves[i]);
+            }
+            Node[] existing = (Node[]) CHILDREN.compareAndExchange(this, (Node[]) null, created);
+            return existing != null ? existing : created;
+        }
+    }
+
+    /**
+     * One search thread: runs iterations on its own copy of the game until its budget is spent.
+     */
+    private final class Worker implements Callable<Node> {
+        private final BitboardGameLogic game;
+        private final Node root;
+        private final int virtualLoss;
+        private final long deadline;
+        private final long quota;
+        private final SplittableRandom random;
+        private final int[] moves = new int[MAX_MOVES];
+        private final Node[] path = new Node[MAX_PLY + 1];
+        private final boolean[] movers = new boolean[MAX_PLY + 1]; // true if the first player made the move
+
+        Worker(BitboardGameLogic game, Node root, int virtualLoss, long deadline, long quota,
+               SplittableRandom random) {
+            this.game = game;
+            this.root = root;
+            this.virtualLoss = virtualLoss;
+            this.deadline = deadline;
+            this.quota = quota;
+            this.random = random;
+        }
+
+        @Override
+        public Node call() {
+            for (long done = 0; done < quota; done++) {
+                if ((done & 63) == 0 && System.nanoTime() >= deadline) {
+                    break;
+                }
+                iterate();
+            }
+            return root;
+        }
+
+        /**
+         * Runs one selection, expansion, playout and backpropagation, and restores the game.
+         */
+        private void iterate() {
+            Node node = root;
+            int depth = 0;
+            Node[] children;
+            while ((children = node.children) != null && children.length > 0) {
+                node = select(node, children);
+                depth = descend(node, depth);
+            }
+            if (children == null) {
+                int count = game.generateMoves(moves);
+                children = node.expand(moves, count);
+                if (children.length > 0) {
+                    node = children[random.nextInt(children.length)];
+                    depth = descend(node, depth);
+                }
+            }
+
+            int played = 0;
+            int count;
+            while ((count = game.generateMoves(moves)) > 0) { // the random playout
+                game.makeMove(moves[random.nextInt(count)]);
+                played++;
+            }
+            boolean firstWins = game.getDiscCount(true) >= game.getDiscCount(false); // a tie is won by player1
+            for (int i = 0; i < played; i++) {
+                game.unmakeMove();
+            }
+
+            root.update(0, 0);
+            for (int i = depth; i > 0; i--) {
+                path[i].update(movers[i] == firstWins ? 1 : 0, virtualLoss);
+                game.unmakeMove();
+            }
+        }
+
+        private int descend(Node child, int depth) {
+            child.addVirtualLoss(virtualLoss);
+            path[++depth] = child;
+            movers[depth] = game.isFirstPlayerTurn();
+            game.makeMove(child.move);
+            return depth;
+        }
+
+        /**
+         * Chooses the child with the highest UCT value; an unvisited child is always chosen first.
+         */
+        private Node select(Node parent, Node[] children) {
+            double logVisits = Math.log(Math.max(1, parent.visits()));
+            Node best = children[0];
+            double bestValue = Double.NEGATIVE_INFINITY;
+            for (Node child : children) {
+                long stats = child.stats;
+                long visits = stats >>> 32;
+                if (visits == 0) {
+                    return child;
+                }
+                double value = (double) (stats & 0xFFFFFFFFL) / visits
+                        + exploration * Math.sqrt(logVisits / visits);
+                if (value > bestValue) {
+                    bestValue = value;
+                    best = child;
+                }
+            }
+            return best;
+        }
+    }
+}
@@ -38,7 +38,8 @@ public class Move {
 
     /**
      * Checks whether this move is equal to another object.
-     * Two moves are considered equal if they have the same position and disc.
+     * Two moves are considered equal if they have the same position and place the same type of disc
+     * for the same owner, even when the Disc objects are different.
      *
      * @param obj the object to compare with this move
      * @return true if the objects are equal, false otherwise
@@ -48,7 +49,18 @@ public class Move {
         if (this == obj) return true;
         if (obj == null || getClass() != obj.getClass()) return false;
         Move move = (Move) obj;
-        return position.equals(move.position) && disc.equals(move.disc);
+        return position.equals(move.position) && disc.getClass() == move.disc.getClass()
+                && disc.getOwner() == move.disc.getOwner();
+    }
+
+    /**
+     * Returns a hash code consistent with equals, built from the position and the disc type.
+     *
+     * @return the hash code of this move
+     */
+    @Override
+    public int hashCode() {
+        return position.hashCode() * 31 + disc.getClass().hashCode();
     }
 
 
@@ -0,0 +1,95 @@
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * The MoveGenerator class computes every legal square for the player to move in one pass of directional shifts.
+ * Each of the 8 directions is flooded from the player's discs through the opponent's discs with a Kogge-Stone
+ * parallel prefix fill, so all 64 squares are tested at once and the result is returned as a 64-bit mask
+ * (bit row * 8 + col).
+ */
+public final class MoveGenerator {
+    private static final long NOT_FIRST_COLUMN = 0xFEFEFEFEFEFEFEFEL; // clears the squares that wrapped to column 0
+    private static final long NOT_LAST_COLUMN = 0x7F7F7F7F7F7F7F7FL; // clears the squares that wrapped to column 7
+
+    // the bit shift of one step in each direction, in the order of GameLogic.DIRECTIONS
+    private static final int[] SHIFTS = {1, -1, 8, -8, 9, 7, -7, -9};
+    private static final long[] WRAP_MASKS = {NOT_FIRST_COLUMN, NOT_LAST_COLUMN, -1L, -1L,
+            NOT_FIRST_COLUMN, NOT_LAST_COLUMN, NOT_FIRST_COLUMN, NOT_LAST_COLUMN};
+
+    private MoveGenerator() {
+    }
+
+    /**
+     * Computes the legal moves of a player.
+     * A square is legal if it is empty and, in at least one direction, a line of opponent discs that is closed by
+     * one of the player's discs contains a disc that can be flipped. Lines made only of unflippable discs
+     * flip nothing and do not make a move legal.
+     *
+     * @param own         the discs of the player to move
+     * @param opponent    the discs of the other player
+     * @param unflippable the unflippable discs of both players
+     * @return the mask of the legal squares
+     */
+    public static long validMoves(long own, long opponent, long unflippable) {
+        long empty = ~(own | opponent);
+        long opponentUnflippable = opponent & unflippable;
+        long moves = 0;
+        for (int d = 0; d < SHIFTS.length; d++) {
+            int shift = SHIFTS[d];
+            long wrap = WRAP_MASKS[d];
+            long lines = fill(own, opponent & wrap, shift) & opponent;
+            long unflippableLines = fill(own, opponentUnflippable & wrap, shift) & opponentUnflippable;
+            moves |= step(lines, shift, wrap) & ~step(unflippableLines, shift, wrap);
+        }
+        return moves & empty;
+    }
+
+    /**
+     * Converts a mask of squares into positions, in row-major order.
+     *
+     * @param squares the mask of squares
+     * @return a list with the position of every square in the mask
+     */
+    public static List<Position> toPositions(long squares) {
+        List<Position> positions = new ArrayList<>(Long.bitCount(squares));
+        for (long rest = squares; rest != 0; rest &= rest - 1) {
+            int square = Long.numberOfTrailingZeros(rest);
+            positions.add(new Position(square >>> 3, square & 7));
+        }
+        return positions;
+    }
+
+    /**
+     * Kogge-Stone occluded fill: floods the generator squares in one direction through the propagator squares
+     * in log2(8) = 3 doubling steps.
+     *
+     * @param generator  the squares the flood starts from
+     * @param propagator the squares the flood may enter, already masked against wrapping
+     * @param shift      the bit shift of one step
+     * @return the generator squares together with every propagator square they reach
+     */
+    private static long fill(long generator, long propagator, int shift) {
+        generator |= propagator & shift(generator, shift);
+        propagator &= shift(propagator, shift);
+        generator |= propagator & shift(generator, 2 * shift);
+        propagator &= shift(propagator, 2 * shift);
+        generator |= propagator & shift(generator, 4 * shift);
+        return generator;
+    }
+
+    /**
+     * Moves every square one step in a direction, dropping the squares that leave the board.
+     *
+     * @param squares the mask of squares
+     * @param shift   the bit shift of one step
+     * @param wrap    the mask of the squares a step in this direction may land on
+     * @return the shifted mask
+     */
+    private static long step(long squares, int shift, long wrap) {
+        return shift(squares, shift) & wrap;
+    }
+
+    private static long shift(long squares, int shift) {
+        return shift > 0 ? squares << shift : squares >>> -shift;
+    }
+}
@@ -0,0 +1,172 @@
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+
+/**
+ * The OpeningBook class looks up the best known move of early game positions in a binary book file.
+ * The file is memory-mapped, so opening a book costs nothing on the heap and lookups start at once.
+ * Entries are sorted by the Zobrist hash of the position (see Zobrist), which covers the board, the turn and
+ * the special disc counts, and every entry holds a packed move, so the book also chooses the disc type.
+ * <p>
+ * File layout (big-endian): the magic number, the version and the number of entries (int, int, long),
+ * then the entries, 16 bytes each: hash (long), packed move (short), score (short), weight (int).
+ * Build a book with OpeningBookBuilder.
+ */
+public class OpeningBook {
+    public static final int NO_MOVE = -1; // returned for positions that are not in the book
+    public static final String DEFAULT_FILE = "opening.book"; // the book players open if it exists
+    public static final OpeningBook EMPTY = new OpeningBook(ByteBuffer.allocate(0), 0);
+    private static final int MAGIC = 0x5256424B; // "RVBK"
+    private static final int VERSION = 1;
+    private static final int HEADER_BYTES = 16;
+    private static final int ENTRY_BYTES = 16;
+
+    private final ByteBuffer entries; // the mapped entries, read with absolute gets only
+    private final int count;
+
+    private OpeningBook(ByteBuffer entries, int count) {
+        this.entries = entries;
+        this.count = count;
+    }
+
+    /**
+     * Opens a book file by mapping it into memory.
+     *
+     * @param file the book file
+     * @return the opened book
+     * @throws IOException if the file can not be read or is not a book
+     */
+    public static OpeningBook open(Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            ByteBuffer mapped = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            if (channel.size() < HEADER_BYTES || mapped.getInt(0) != MAGIC || mapped.getInt(4) != VERSION) {
+                throw new IOException("Not an opening book: " + file);
+            }
+            long count = mapped.getLong(8);
+            if (count < 0 || HEADER_BYTES + count * ENTRY_BYTES != channel.size()) {
+                throw new IOException("Truncated opening book: " + file);
+            }
+            return new OpeningBook(mapped.slice(HEADER_BYTES, (int) count * ENTRY_BYTES), (int) count);
+        } // the mapping stays valid after the channel is closed
+    }
+
+    /**
+     * Opens the book given by the reversi.book system property, or DEFAULT_FILE in the working directory.
+     *
+     * @return the book, or EMPTY if there is no readable book
+     */
+    public static OpeningBook openDefault() {
+        Path file = Path.of(System.getProperty("reversi.book", DEFAULT_FILE));
+        if (!Files.isRegularFile(file)) {
+            return EMPTY;
+        }
+        try {
+            return open(file);
+        } catch (IOException e) {
+            return EMPTY;
+        }
+    }
+
+    /**
+     * Writes a book file.
+     *
+     * @param file    the file to write
+     * @param hashes  the position hashes; sorted with the other arrays by this method
+     * @param moves   the packed move of every position
+     * @param scores  the search score of every move
+     * @param weights the number of times every position was reached while building the book
+     * @param count   the number of entries
+     * @throws IOException if the file can not be written
+     */
+    public static void write(Path file, long[] hashes, int[] moves, int[] scores, int[] weights, int count)
+            throws IOException {
+        Integer[] order = new Integer[count];
+        for (int i = 0; i < count; i++) {
+            order[i] = i;
+        }
+        Arrays.sort(order, (a, b) -> Long.compare(hashes[a], hashes[b]));
+        try (OutputStream stream = Files.newOutputStream(file);
+             DataOutputStream out = new DataOutputStream(new BufferedOutputStream(stream))) {
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+            out.writeLong(count);
+            for (int i : order) {
+                out.writeLong(hashes[i]);
+                out.writeShort(moves[i]);
+                out.writeShort(scores[i]);
+                out.writeInt(weights[i]);
+            }
+        }
+    }
+
+    /**
+     * Looks up the book move of a position.
+     *
+     * @param hash the Zobrist hash of the position
+     * @return the packed move, or NO_MOVE if the position is not in the book
+     */
+    public int lookup(long hash) {
+        int index = find(hash);
+        return index < 0 ? NO_MOVE : entries.getShort(index * ENTRY_BYTES + 8);
+    }
+
+    /**
+     * Looks up the book move of a game, and checks that the move is legal in it.
+     *
+     * @param game the game
+     * @return the packed move, or NO_MOVE if the position is not in the book
+     */
+    public int lookup(BitboardGameLogic game) {
+        int move = lookup(game.getHash());
+        return move != NO_MOVE && game.isLegal(move) ? move : NO_MOVE;
+    }
+
+    /**
+     * Returns the search score stored with the book move of a position.
+     *
+     * @param hash the Zobrist hash of the position
+     * @return the score for the player to move, or 0 if the position is not in the book
+     */
+    public int getScore(long hash) {
+        int index = find(hash);
+        return index < 0 ? 0 : entries.getShort(index * ENTRY_BYTES + 10);
+    }
+
+    /**
+     * Returns the number of positions in the book.
+     *
+     * @return the entry count
+     */
+    public int size() {
+        return count;
+    }
+
+    /**
+     * Binary search over the sorted entries.
+     *
+     * @return the index of the entry, or -1 if there is none
+     */
+    private int find(long hash) {
+        int low = 0;
+        int high = count - 1;
+        while (low <= high) {
+            int middle = (low + high) >>> 1;
+            long key = entries.getLong(middle * ENTRY_BYTES);
+            if (key < hash) {
+                low = middle + 1;
+            } else if (key > hash) {
+                high = middle - 1;
+            } else {
+                return middle;
+            }
+        }
+        return -1;
+    }
+}
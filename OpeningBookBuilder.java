@@ -0,0 +1,92 @@
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+
+/**
+ * Builds an opening book by self-play from the start position.
+ * Every game follows the book moves found so far, but plays a random legal move (any square and disc type)
+ * with a small probability, so the games spread over the likely openings. Every new position reached within
+ * the book depth is searched once with AlphaBetaSearch to a fixed depth, and its best move is added to the book.
+ * Run with: java OpeningBookBuilder [file] [games] [book plies] [search depth] [random move probability]
+ */
+public class OpeningBookBuilder {
+    private static final int TABLE_MEGABYTES = 64;
+    private static final long NO_TIME_LIMIT = Long.MAX_VALUE; // the searches stop on depth only
+
+    private final Map<Long, int[]> book = new HashMap<>(); // hash -> {packed move, score, weight}
+    private final TranspositionTable table = new TranspositionTable(TABLE_MEGABYTES);
+    private final AlphaBetaSearch search = new AlphaBetaSearch(table);
+
+    public static void main(String[] args) throws IOException {
+        Path file = Path.of(args.length > 0 ? args[0] : OpeningBook.DEFAULT_FILE);
+        int games = args.length > 1 ? Integer.parseInt(args[1]) : 2000;
+        int plies = args.length > 2 ? Integer.parseInt(args[2]) : 10;
+        int depth = args.length > 3 ? Integer.parseInt(args[3]) : 6;
+        double randomness = args.length > 4 ? Double.parseDouble(args[4]) : 0.25;
+        OpeningBookBuilder builder = new OpeningBookBuilder();
+        long begin = System.nanoTime();
+        builder.build(games, plies, depth, randomness, new Random(42));
+        builder.write(file);
+        System.out.printf("%d positions written to %s in %.1f s%n",
+                builder.book.size(), file, (System.nanoTime() - begin) / 1e9);
+    }
+
+    /**
+     * Plays the self-play games and collects the book positions.
+     *
+     * @param games      the number of games
+     * @param plies      the number of moves of every game that go into the book
+     * @param depth      the search depth of every book position
+     * @param randomness the probability of a random move instead of the book move
+     * @param random     the source of the random moves
+     */
+    public void build(int games, int plies, int depth, double randomness, Random random) {
+        int[] moves = new int[3 * 64];
+        for (int g = 0; g < games; g++) {
+            BitboardGameLogic game = new BitboardGameLogic();
+            game.setPlayers(new HumanPlayer(true), new HumanPlayer(false));
+            game.reset(); // the start position of GameLogic.initializeBoard
+            for (int ply = 0; ply < plies && !game.isGameOver(); ply++) {
+                int[] entry = book.computeIfAbsent(game.getHash(), hash -> evaluate(game, depth));
+                entry[2]++;
+                int move = entry[0];
+                if (random.nextDouble() < randomness) {
+                    int count = game.generateMoves(moves);
+                    move = moves[random.nextInt(count)];
+                }
+                game.makeMove(move);
+            }
+        }
+    }
+
+    /**
+     * Writes the collected positions as a sorted book file.
+     *
+     * @param file the file to write
+     * @throws IOException if the file can not be written
+     */
+    public void write(Path file) throws IOException {
+        int count = book.size();
+        long[] hashes = new long[count];
+        int[] moves = new int[count];
+        int[] scores = new int[count];
+        int[] weights = new int[count];
+        int i = 0;
+        for (Map.Entry<Long, int[]> entry : book.entrySet()) {
+            hashes[i] = entry.getKey();
+            moves[i] = entry.getValue()[0];
+            scores[i] = entry.getValue()[1];
+            weights[i] = entry.getValue()[2];
+            i++;
+        }
+        OpeningBook.write(file, hashes, moves, scores, weights, count);
+    }
+
+    private int[] evaluate(BitboardGameLogic game, int depth) {
+        table.newSearch(); // ages the entries of the positions searched before
+        int move = search.search(game, NO_TIME_LIMIT, depth);
+        return new int[]{move, search.getBestScore(), 0};
+    }
+}
@@ -0,0 +1,98 @@
+/**
+ * The PackedMove class encodes a move as a single int, so that search code can generate, store and replay moves
+ * without allocating Move, Position or Disc objects.
+ * Bits 0-5 hold the square (row * 8 + col) and bits 6-7 hold the type of the placed disc.
+ */
+public final class PackedMove {
+    public static final int SIMPLE = 0; // a SimpleDisc
+    public static final int BOMB = 1; // a BombDisc
+    public static final int UNFLIPPABLE = 2; // an UnflippableDisc
+
+    private PackedMove() {
+    }
+
+    /**
+     * Encodes a move.
+     *
+     * @param square the square of the move (row * 8 + col)
+     * @param type   the disc type: SIMPLE, BOMB or UNFLIPPABLE
+     * @return the packed move
+     */
+    public static int of(int square, int type) {
+        return square | (type << 6);
+    }
+
+    /**
+     * Encodes a Move object.
+     *
+     * @param move the move to encode
+     * @return the packed move
+     */
+    public static int of(Move move) {
+        return of(move.position().row() * 8 + move.position().col(), typeOf(move.disc()));
+    }
+
+    /**
+     * Retrieves the square of a packed move.
+     *
+     * @param move the packed move
+     * @return the square (row * 8 + col)
+     */
+    public static int square(int move) {
+        return move & 63;
+    }
+
+    /**
+     * Retrieves the disc type of a packed move.
+     *
+     * @param move the packed move
+     * @return SIMPLE, BOMB or UNFLIPPABLE
+     */
+    public static int type(int move) {
+        return (move >>> 6) & 3;
+    }
+
+    /**
+     * Returns the packed disc type of a disc.
+     *
+     * @param disc the disc
+     * @return BOMB for a BombDisc, UNFLIPPABLE for an UnflippableDisc and SIMPLE for any other disc
+     */
+    public static int typeOf(Disc disc) {
+        if (disc instanceof BombDisc) {
+            return BOMB;
+        }
+        if (disc instanceof UnflippableDisc) {
+            return UNFLIPPABLE;
+        }
+        return SIMPLE;
+    }
+
+    /**
+     * Decodes a packed move into a Move object with a new disc owned by the given player.
+     *
+     * @param move  the packed move
+     * @param owner the owner of the placed disc
+     * @return the decoded move
+     */
+    public static Move toMove(int move, Player owner) {
+        Position position = new Position(square(move) / 8, square(move) % 8);
+        Disc disc = switch (type(move)) {
+            case BOMB -> new BombDisc(owner);
+            case UNFLIPPABLE -> new UnflippableDisc(owner);
+            default -> new SimpleDisc(owner);
+        };
+        return new Move(position, disc);
+    }
+
+    /**
+     * Returns a string representation of a packed move, such as "(2, 3) 💣".
+     *
+     * @param move the packed move
+     * @return a string describing the move
+     */
+    public static String toString(int move) {
+        String type = type(move) == BOMB ? "💣" : type(move) == UNFLIPPABLE ? "⭕" : "⬤";
+        return "(" + square(move) / 8 + ", " + square(move) % 8 + ") " + type;
+    }
+}
@@ -0,0 +1,246 @@
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * The PatternEvaluator class scores positions with trained lookup tables over board patterns:
+ * the edges, the 3x3 and 2x4 corner blocks and the main diagonals, in every orientation of the board.
+ * Every square of a pattern is one base-5 digit: empty, own disc, opponent disc, own unflippable disc or
+ * opponent unflippable disc, all from the point of view of the player to move. Bomb discs are scored by a
+ * table over their square and owner, and the special discs left in hand by two small inventory tables.
+ * An evaluation is the sum of one table weight per feature (see features), so it costs a few dozen lookups.
+ * <p>
+ * Weight file layout (big-endian): the magic number, the version and the number of weights (3 ints),
+ * then the weights as shorts, in the order of features.
+ */
+public class PatternEvaluator implements Evaluator {
+    public static final String DEFAULT_FILE = "patterns.weights"; // the weights players load if present
+    public static final int MAX_FEATURES = 192; // the buffer size features needs
+    public static final int SCORE_PER_DISC = 16; // the evaluation of one disc of final difference
+    private static final int STATE_BASE = MAX_FEATURES - 64; // features returns fewer than STATE_BASE indices
+    private static final int MAGIC = 0x52565057; // "RVPW"
+    private static final int VERSION = 1;
+    private static final int BOARD_SIZE = 8;
+    private static final int STATES = 5; // empty, own, opponent, own unflippable, opponent unflippable
+    private static final int MAX_INVENTORY = 8; // the inventory tables count up to 7 discs left
+    private static final int LIMIT = AlphaBetaSearch.WIN / 2; // evaluations are clamped to stay far from wins
+    private static final int[][] BASE_PATTERNS = {
+            {0, 1, 2, 3, 4, 5, 6, 7}, // the edge
+            {0, 1, 2, 8, 9, 10, 16, 17, 18}, // the 3x3 corner block
+            {0, 1, 2, 3, 8, 9, 10, 11}, // the 2x4 corner block
+            {0, 9, 18, 27, 36, 45, 54, 63}}; // the main diagonal
+    private static final int[][] INSTANCES; // every distinct orientation of every base pattern, as squares
+    private static final int[] INSTANCE_OFFSETS; // the first weight of the table of every instance
+    private static final int BOMB_OFFSET; // own bombs by square, then opponent bombs by square
+    private static final int BOMBS_LEFT_OFFSET; // [own bombs left][opponent bombs left]
+    private static final int UNFLIPPABLES_LEFT_OFFSET; // [own unflippables left][opponent unflippables left]
+    private static final int WEIGHT_COUNT;
+
+    static {
+        List<int[]> instances = new ArrayList<>();
+        List<Integer> offsets = new ArrayList<>();
+        int offset = 0;
+        for (int[] base : BASE_PATTERNS) {
+            List<int[]> seen = new ArrayList<>();
+            for (int symmetry = 0; symmetry < 8; symmetry++) {
+                int[] squares = new int[base.length];
+                for (int i = 0; i < base.length; i++) {
+                    squares[i] = transform(base[i], symmetry);
+                }
+                int[] sorted = squares.clone();
+                Arrays.sort(sorted);
+                if (seen.stream().noneMatch(other -> Arrays.equals(other, sorted))) {
+                    seen.add(sorted);
+                    instances.add(squares);
+                    offsets.add(offset); // all orientations of a pattern share one table
+                }
+            }
+            offset += (int) Math.pow(STATES, base.length);
+        }
+        INSTANCES = instances.toArray(new int[0][]);
+        INSTANCE_OFFSETS = offsets.stream().mapToInt(Integer::intValue).toArray();
+        BOMB_OFFSET = offset;
+        BOMBS_LEFT_OFFSET = BOMB_OFFSET + 2 * BOARD_SIZE * BOARD_SIZE;
+        UNFLIPPABLES_LEFT_OFFSET = BOMBS_LEFT_OFFSET + MAX_INVENTORY * MAX_INVENTORY;
+        WEIGHT_COUNT = UNFLIPPABLES_LEFT_OFFSET + MAX_INVENTORY * MAX_INVENTORY;
+    }
+
+    private static final ThreadLocal<int[]> BUFFERS = ThreadLocal.withInitial(() -> new int[MAX_FEATURES]);
+
+    private final short[] weights;
+
+    /**
+     * Constructs a PatternEvaluator with the given weights.
+     *
+     * @param weights the weights, weightCount() of them
+     */
+    public PatternEvaluator(short[] weights) {
+        if (weights.length != WEIGHT_COUNT) {
+            throw new IllegalArgumentException("Expected " + WEIGHT_COUNT + " weights, got " + weights.length);
+        }
+        this.weights = weights;
+    }
+
+    /**
+     * Loads the weights of a PatternEvaluator from a file.
+     *
+     * @param file the weight file
+     * @return the evaluator
+     * @throws IOException if the file can not be read or does not hold pattern weights
+     */
+    public static PatternEvaluator load(Path file) throws IOException {
+        ByteBuffer buffer = ByteBuffer.wrap(Files.readAllBytes(file));
+        if (buffer.remaining() < 12 || buffer.getInt() != MAGIC || buffer.getInt() != VERSION) {
+            throw new IOException("Not a pattern weight file: " + file);
+        }
+        int count = buffer.getInt();
+        if (count != WEIGHT_COUNT || buffer.remaining() != count * Short.BYTES) {
+            throw new IOException("Pattern weight file does not match the patterns: " + file);
+        }
+        short[] weights = new short[count];
+        buffer.asShortBuffer().get(weights);
+        return new PatternEvaluator(weights);
+    }
+
+    /**
+     * Loads the weights given by the reversi.patterns system property, or DEFAULT_FILE in the working directory.
+     *
+     * @return the pattern evaluator, or Evaluator.HEURISTIC if there are no readable weights
+     */
+    public static Evaluator openDefault() {
+        Path file = Path.of(System.getProperty("reversi.patterns", DEFAULT_FILE));
+        if (!Files.isRegularFile(file)) {
+            return Evaluator.HEURISTIC;
+        }
+        try {
+            return load(file);
+        } catch (IOException e) {
+            return Evaluator.HEURISTIC;
+        }
+    }
+
+    /**
+     * Writes weights to a file that load can read.
+     *
+     * @param file    the file to write
+     * @param weights the weights, weightCount() of them
+     * @throws IOException if the file can not be written
+     */
+    public static void write(Path file, short[] weights) throws IOException {
+        try (OutputStream stream = Files.newOutputStream(file);
+             DataOutputStream out = new DataOutputStream(new BufferedOutputStream(stream))) {
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+            out.writeInt(weights.length);
+            for (short weight : weights) {
+                out.writeShort(weight);
+            }
+        }
+    }
+
+    /**
+     * Returns the number of weights of the evaluator.
+     *
+     * @return the size of the weight vector
+     */
+    public static int weightCount() {
+        return WEIGHT_COUNT;
+    }
+
+    /**
+     * Lists the weights that score a position: one per pattern instance, one per bomb on the board and one per
+     * inventory table. The evaluation is the sum of these weights, so training fits them directly.
+     *
+     * @param game    the position
+     * @param indices receives the weight indices; it needs MAX_FEATURES entries
+     * @return the number of indices written
+     */
+    public static int features(BitboardGameLogic game, int[] indices) {
+        boolean first = game.isFirstPlayerTurn();
+        return features(game.getDiscMask(first), game.getDiscMask(!first), game.getBombMask(),
+                game.getUnflippableMask(), game.getBombsLeft(first), game.getBombsLeft(!first),
+                game.getUnflippablesLeft(first), game.getUnflippablesLeft(!first), indices);
+    }
+
+    /**
+     * Lists the weights that score a position given as masks, from the point of view of the player to move.
+     *
+     * @param own                  the discs of the player to move
+     * @param opponent             the discs of the other player
+     * @param bombs                the bomb discs of both players
+     * @param unflippable          the unflippable discs of both players
+     * @param ownBombs             the bombs left to the player to move
+     * @param opponentBombs        the bombs left to the other player
+     * @param ownUnflippables      the unflippable discs left to the player to move
+     * @param opponentUnflippables the unflippable discs left to the other player
+     * @param indices              receives the weight indices; it needs MAX_FEATURES entries
+     * @return the number of indices written
+     */
+    public static int features(long own, long opponent, long bombs, long unflippable, int ownBombs,
+                               int opponentBombs, int ownUnflippables, int opponentUnflippables, int[] indices) {
+        int[] states = indices; // the square states are kept in the end of the buffer while the indices are built
+        for (int square = 0; square < BOARD_SIZE * BOARD_SIZE; square++) { // an unflippable disc adds 2 to its state
+            states[STATE_BASE + square] = (int) (own >>> square & 1) + 2 * (int) (opponent >>> square & 1)
+                    + 2 * (int) (unflippable >>> square & 1);
+        }
+        int count = 0;
+        for (int i = 0; i < INSTANCES.length; i++) {
+            int index = 0;
+            for (int square : INSTANCES[i]) {
+                index = index * STATES + states[STATE_BASE + square];
+            }
+            indices[count++] = INSTANCE_OFFSETS[i] + index;
+        }
+        for (long rest = bombs; rest != 0; rest &= rest - 1) {
+            int square = Long.numberOfTrailingZeros(rest);
+            boolean mine = (own & (1L << square)) != 0;
+            indices[count++] = BOMB_OFFSET + (mine ? 0 : BOARD_SIZE * BOARD_SIZE) + square;
+        }
+        indices[count++] = BOMBS_LEFT_OFFSET + inventory(ownBombs) * MAX_INVENTORY + inventory(opponentBombs);
+        indices[count++] = UNFLIPPABLES_LEFT_OFFSET
+                + inventory(ownUnflippables) * MAX_INVENTORY + inventory(opponentUnflippables);
+        return count;
+    }
+
+    @Override
+    public int evaluate(BitboardGameLogic game) {
+        int[] indices = BUFFERS.get(); // evaluations run on many search threads and must not allocate
+        int count = features(game, indices);
+        int score = 0;
+        for (int i = 0; i < count; i++) {
+            score += weights[indices[i]];
+        }
+        return Math.max(-LIMIT, Math.min(LIMIT, score));
+    }
+
+    private static int inventory(int left) {
+        return Math.max(0, Math.min(MAX_INVENTORY - 1, left));
+    }
+
+    /**
+     * Applies one of the 8 symmetries of the board to a square.
+     */
+    private static int transform(int square, int symmetry) {
+        int row = square / BOARD_SIZE;
+        int col = square % BOARD_SIZE;
+        if ((symmetry & 1) != 0) {
+            col = BOARD_SIZE - 1 - col;
+        }
+        if ((symmetry & 2) != 0) {
+            row = BOARD_SIZE - 1 - row;
+        }
+        if ((symmetry & 4) != 0) {
+            int swap = row;
+            row = col;
+            col = swap;
+        }
+        return row * BOARD_SIZE + col;
+    }
+}
@@ -0,0 +1,138 @@
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Fits the PatternEvaluator weights to a TrainingData file by stochastic gradient descent on the squared error
+ * between the evaluation and the final disc difference.
+ * The file is never loaded: every thread streams its own range of records through a small direct buffer with
+ * positional reads, and all threads update one shared weight vector without locks (Hogwild style), which is
+ * safe because each record only touches a few dozen of the millions of weights.
+ * Run with: java PatternTrainer [data file] [weight file] [epochs] [learning rate] [threads]
+ */
+public class PatternTrainer {
+    private static final int CHUNK_RECORDS = 4096; // the records read at once by a thread
+
+    private final float[] weights = new float[PatternEvaluator.weightCount()]; // in discs
+    private final double learningRate;
+
+    /**
+     * Constructs a new PatternTrainer with all weights at zero.
+     *
+     * @param learningRate the step size of the gradient descent
+     */
+    public PatternTrainer(double learningRate) {
+        this.learningRate = learningRate;
+    }
+
+    public static void main(String[] args) throws IOException, InterruptedException {
+        Path data = Path.of(args.length > 0 ? args[0] : "selfplay.data");
+        Path output = Path.of(args.length > 1 ? args[1] : PatternEvaluator.DEFAULT_FILE);
+        int epochs = args.length > 2 ? Integer.parseInt(args[2]) : 10;
+        double learningRate = args.length > 3 ? Double.parseDouble(args[3]) : 0.002;
+        int threads = args.length > 4 ? Integer.parseInt(args[4]) : Runtime.getRuntime().availableProcessors();
+        PatternTrainer trainer = new PatternTrainer(learningRate);
+        try (FileChannel channel = FileChannel.open(data, StandardOpenOption.READ)) {
+            long records = TrainingData.checkHeader(channel);
+            for (int epoch = 1; epoch <= epochs; epoch++) {
+                long begin = System.nanoTime();
+                double error = trainer.epoch(channel, records, threads);
+                System.out.printf("epoch %d: mean squared error %.2f discs^2, %.0f positions/s%n",
+                        epoch, error, records / ((System.nanoTime() - begin) / 1e9));
+            }
+        }
+        PatternEvaluator.write(output, trainer.toShorts());
+        System.out.println("weights written to " + output);
+    }
+
+    /**
+     * Runs one pass over the file, split into one range of records per thread.
+     *
+     * @param channel the open training file
+     * @param records the number of records in the file
+     * @param threads the number of threads
+     * @return the mean squared error of the pass, in discs squared
+     * @throws IOException          if the file can not be read
+     * @throws InterruptedException if the thread is interrupted while waiting for the workers
+     */
+    public double epoch(FileChannel channel, long records, int threads) throws IOException, InterruptedException {
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        List<Future<Double>> parts = new ArrayList<>();
+        for (int i = 0; i < threads; i++) {
+            long from = records * i / threads;
+            long to = records * (i + 1) / threads;
+            parts.add(pool.submit(() -> train(channel, from, to)));
+        }
+        pool.shutdown();
+        double squaredError = 0;
+        try {
+            for (Future<Double> part : parts) {
+                squaredError += part.get();
+            }
+        } catch (ExecutionException e) {
+            throw new IOException("Training worker failed", e.getCause());
+        } finally {
+            pool.shutdownNow();
+        }
+        return records == 0 ? 0 : squaredError / records;
+    }
+
+    /**
+     * Returns the weights in evaluation units, rounded to shorts, as PatternEvaluator.write expects them.
+     *
+     * @return the weight vector
+     */
+    public short[] toShorts() {
+        short[] result = new short[weights.length];
+        for (int i = 0; i < weights.length; i++) {
+            long scaled = Math.round(weights[i] * PatternEvaluator.SCORE_PER_DISC);
+            result[i] = (short) Math.max(Short.MIN_VALUE, Math.min(Short.MAX_VALUE, scaled));
+        }
+        return result;
+    }
+
+    /**
+     * Trains on the records [from, to) of the file.
+     *
+     * @return the sum of the squared errors of the records, before their updates
+     */
+    private double train(FileChannel channel, long from, long to) throws IOException {
+        ByteBuffer chunk = ByteBuffer.allocateDirect(CHUNK_RECORDS * TrainingData.RECORD_BYTES);
+        int[] indices = new int[PatternEvaluator.MAX_FEATURES];
+        double squaredError = 0;
+        for (long next = from; next < to; ) {
+            int count = (int) Math.min(CHUNK_RECORDS, to - next);
+            chunk.clear().limit(count * TrainingData.RECORD_BYTES);
+            long position = TrainingData.HEADER_BYTES + next * TrainingData.RECORD_BYTES;
+            while (chunk.hasRemaining()) {
+                if (channel.read(chunk, position + chunk.position()) < 0) {
+                    throw new IOException("Training data file ended early");
+                }
+            }
+            for (int record = 0; record < count; record++) {
+                int offset = record * TrainingData.RECORD_BYTES;
+                int features = TrainingData.features(chunk, offset, indices);
+                float prediction = 0;
+                for (int i = 0; i < features; i++) {
+                    prediction += weights[indices[i]];
+                }
+                float error = TrainingData.difference(chunk, offset) - prediction;
+                squaredError += error * error;
+                float step = (float) (learningRate * error);
+                for (int i = 0; i < features; i++) {
+                    weights[indices[i]] += step;
+                }
+            }
+            next += count;
+        }
+        return squaredError;
+    }
+}
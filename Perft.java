@@ -0,0 +1,251 @@
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * Counts the positions reachable in exactly N moves (perft), as a bulk check of the move generator and as a
+ * speed benchmark. Every choice of disc type is a separate move, as long as the player has one left, so perft
+ * covers BombDisc and UnflippableDisc moves too. A position where the game is over before depth N counts
+ * nothing.
+ * The fast count runs on BitboardGameLogic, in parallel over the root moves on a ForkJoinPool, with an
+ * optional lock-free table of subtree counts keyed by the Zobrist hash. The reference count plays the same
+ * moves on GameLogic with locate_disc and undoLastMove; the two are compared root move by root move.
+ * Run with: java Perft [depth] [threads] [hash MB, 0 for none] [reference depth] [packed moves to the position...]
+ */
+public class Perft {
+    private static final int MAX_MOVES = 3 * 64; // every square with every disc type
+    private static final int MAX_PACKED_MOVE = 3 << 6; // the packed moves are below this
+    private static final VarHandle SLOTS = MethodHandles.arrayElementVarHandle(long[].class);
+    private static final int DEPTH_BITS = 6; // depths up to 63 are stored
+
+    private final ForkJoinPool pool;
+    private final long[] table; // [key ^ data, data] per entry, with data = count << DEPTH_BITS | depth, or null
+    private final int entryMask;
+
+    /**
+     * Constructs a new Perft.
+     *
+     * @param pool          the pool that counts the root moves in parallel
+     * @param hashMegabytes the memory of the table of subtree counts, or 0 for no table
+     */
+    public Perft(ForkJoinPool pool, int hashMegabytes) {
+        this.pool = pool;
+        if (hashMegabytes > 0) {
+            long entries = Long.highestOneBit(hashMegabytes * 1024L * 1024L / (2 * Long.BYTES));
+            entries = Math.min(entries, Integer.highestOneBit(Integer.MAX_VALUE / 2)); // the largest array
+            table = new long[(int) entries * 2];
+            entryMask = (int) entries - 1;
+        } else {
+            table = null;
+            entryMask = 0;
+        }
+    }
+
+    public static void main(String[] args) {
+        int depth = args.length > 0 ? Integer.parseInt(args[0]) : 6;
+        int threads = args.length > 1 ? Integer.parseInt(args[1]) : Runtime.getRuntime().availableProcessors();
+        int hashMegabytes = args.length > 2 ? Integer.parseInt(args[2]) : 64;
+        int referenceDepth = args.length > 3 ? Integer.parseInt(args[3]) : Math.min(depth, 4);
+
+        GameLogic reference = new GameLogic(GameEventListener.NONE);
+        reference.setPlayers(new HumanPlayer(true), new HumanPlayer(false)); // undoLastMove needs human players
+        reference.reset();
+        for (int i = 4; i < args.length; i++) {
+            int move = Integer.parseInt(args[i]);
+            Player player = reference.isFirstPlayerTurn() ? reference.getFirstPlayer() : reference.getSecondPlayer();
+            Move decoded = PackedMove.toMove(move, player);
+            if (!reference.locate_disc(decoded.position(), decoded.disc())) {
+                throw new IllegalArgumentException("Illegal move " + PackedMove.toString(move));
+            }
+        }
+        BitboardGameLogic game = BitboardGameLogic.copyOf(reference);
+
+        ForkJoinPool pool = new ForkJoinPool(threads);
+        Perft perft = new Perft(pool, hashMegabytes);
+        System.out.printf("%5s %18s %10s %14s%n", "depth", "positions", "ms", "positions/s");
+        for (int d = 1; d <= depth; d++) {
+            long begin = System.nanoTime();
+            long count = sum(perft.divide(game, d));
+            double seconds = (System.nanoTime() - begin) / 1e9;
+            System.out.printf("%5d %18d %10.0f %14.0f%n", d, count, seconds * 1000, count / seconds);
+        }
+
+        for (int d = 1; d <= referenceDepth; d++) {
+            long begin = System.nanoTime();
+            long[] expected = divide(reference, d);
+            double seconds = (System.nanoTime() - begin) / 1e9;
+            long[] actual = new Perft(pool, 0).divide(game, d); // without the table, so the generator is checked
+            List<String> mismatches = new ArrayList<>();
+            for (int move = 0; move < MAX_PACKED_MOVE; move++) {
+                if (expected[move] != actual[move]) {
+                    mismatches.add(String.format("%s: GameLogic %d, BitboardGameLogic %d",
+                            PackedMove.toString(move), expected[move], actual[move]));
+                }
+            }
+            System.out.printf("reference depth %d: %d positions, %.0f positions/s on GameLogic, %s%n", d,
+                    sum(expected), sum(expected) / seconds, mismatches.isEmpty() ? "OK" : "MISMATCH");
+            mismatches.forEach(line -> System.out.println("  " + line));
+        }
+        pool.shutdown();
+    }
+
+    /**
+     * Counts the positions after depth moves for every root move, in parallel over the root moves.
+     *
+     * @param game  the position; it is not changed
+     * @param depth the number of moves, at least 1
+     * @return the counts, indexed by packed root move
+     */
+    public long[] divide(BitboardGameLogic game, int depth) {
+        int[] moves = new int[MAX_MOVES];
+        int count = game.generateMoves(moves);
+        List<RecursiveTask<Long>> tasks = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            int move = moves[i];
+            tasks.add(new RecursiveTask<>() {
+                @Override
+                protected Long compute() {
+                    BitboardGameLogic copy = BitboardGameLogic.copyOf(game);
+                    copy.makeMove(move);
+                    return count(copy, depth - 1, new int[depth][MAX_MOVES]);
+                }
+            });
+        }
+        return pool.invoke(new RecursiveTask<>() {
+            @Override
+            protected long[] compute() {
+                invokeAll(tasks);
+                long[] result = new long[MAX_PACKED_MOVE];
+                for (int i = 0; i < count; i++) {
+                    result[moves[i]] = tasks.get(i).join();
+                }
+                return result;
+            }
+        });
+    }
+
+    /**
+     * Counts the positions after depth moves on the calling thread.
+     *
+     * @param game  the position; it is left as it was
+     * @param depth the number of moves
+     * @return the number of positions
+     */
+    public long count(BitboardGameLogic game, int depth) {
+        return count(game, depth, new int[Math.max(1, depth)][MAX_MOVES]);
+    }
+
+    private long count(BitboardGameLogic game, int depth, int[][] moveBuffers) {
+        if (depth == 0) {
+            return 1;
+        }
+        int[] moves = moveBuffers[depth - 1];
+        int count = game.generateMoves(moves);
+        if (depth == 1) {
+            return count; // every move leads to one position
+        }
+        long key = game.getHash();
+        long cached = probe(key, depth);
+        if (cached >= 0) {
+            return cached;
+        }
+        long total = 0;
+        for (int i = 0; i < count; i++) {
+            game.makeMove(moves[i]);
+            total += count(game, depth - 1, moveBuffers);
+            game.unmakeMove();
+        }
+        store(key, depth, total);
+        return total;
+    }
+
+    /**
+     * Counts the positions after depth moves for every root move on GameLogic, with locate_disc and
+     * undoLastMove; both players must be HumanPlayers.
+     *
+     * @param game  the position; it is left as it was
+     * @param depth the number of moves, at least 1
+     * @return the counts, indexed by packed root move
+     */
+    public static long[] divide(GameLogic game, int depth) {
+        long[] result = new long[MAX_PACKED_MOVE];
+        for (Move move : legalMoves(game)) {
+            game.locate_disc(move.position(), move.disc());
+            result[PackedMove.of(move)] = count(game, depth - 1);
+            game.undoLastMove();
+        }
+        return result;
+    }
+
+    private static long count(GameLogic game, int depth) {
+        if (depth == 0) {
+            return 1;
+        }
+        long total = 0;
+        for (Move move : legalMoves(game)) {
+            if (!game.locate_disc(move.position(), move.disc())) {
+                throw new IllegalStateException("GameLogic rejected its own valid move " + move);
+            }
+            total += count(game, depth - 1);
+            game.undoLastMove();
+        }
+        return total;
+    }
+
+    /**
+     * Lists every valid square with every disc type the player to move has left.
+     */
+    private static List<Move> legalMoves(GameLogic game) {
+        Player player = game.isFirstPlayerTurn() ? game.getFirstPlayer() : game.getSecondPlayer();
+        List<Move> moves = new ArrayList<>();
+        for (Position position : game.ValidMoves()) {
+            moves.add(new Move(position, new SimpleDisc(player)));
+            if (player.getNumber_of_bombs() > 0) {
+                moves.add(new Move(position, new BombDisc(player)));
+            }
+            if (player.getNumber_of_unflippedable() > 0) {
+                moves.add(new Move(position, new UnflippableDisc(player)));
+            }
+        }
+        return moves;
+    }
+
+    /**
+     * Looks up the count of a subtree; a torn entry fails the XOR check and is a miss.
+     *
+     * @return the count, or -1 if it is not in the table
+     */
+    private long probe(long key, int depth) {
+        if (table == null) {
+            return -1;
+        }
+        int entry = 2 * (int) (key & entryMask);
+        long data = (long) SLOTS.getOpaque(table, entry + 1);
+        long check = (long) SLOTS.getOpaque(table, entry);
+        if (data == 0 || (check ^ data) != key || (data & ((1 << DEPTH_BITS) - 1)) != depth) {
+            return -1;
+        }
+        return data >>> DEPTH_BITS;
+    }
+
+    private void store(long key, int depth, long count) {
+        if (table == null) {
+            return;
+        }
+        int entry = 2 * (int) (key & entryMask);
+        long data = count << DEPTH_BITS | depth;
+        SLOTS.setOpaque(table, entry, key ^ data);
+        SLOTS.setOpaque(table, entry + 1, data);
+    }
+
+    private static long sum(long[] counts) {
+        long total = 0;
+        for (long count : counts) {
+            total += count;
+        }
+        return total;
+    }
+}
@@ -52,6 +52,16 @@ public class Position {
         return row == position.row && col == position.col;
     }
 
+    /**
+     * Returns a hash code consistent with equals: the square index row * 8 + col.
+     *
+     * @return the hash code of this position
+     */
+    @Override
+    public int hashCode() {
+        return row * 8 + col;
+    }
+
     /**
      * Checks if this position is within the valid bounds of the board (0-7 for both row and column).
      *
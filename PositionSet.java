@@ -0,0 +1,167 @@
+import java.nio.ByteBuffer;
+
+/**
+ * An open-addressing hash set of 128-bit position keys, each with a fixed-size payload, stored off the heap in
+ * direct buffers, so that it can hold billions of entries without the garbage collector ever scanning them.
+ * Every entry takes one slot of a power of two bytes: the two longs of the key, then the payload. Slots are
+ * found by linear probing. The key (0, 0) marks an empty slot and can not be added.
+ * The set never grows: callers check isFull and empty it (for example to disk) before adding more.
+ * It is not thread-safe.
+ */
+public class PositionSet {
+    public static final int KEY_BYTES = 2 * Long.BYTES;
+    private static final int CHUNK_BYTES = 1 << 30; // the size of one direct buffer
+    private static final double MAX_LOAD = 0.75; // probing gets long above this
+
+    private final ByteBuffer[] chunks;
+    private final int slotBytes;
+    private final int payloadBytes;
+    private final int slotsPerChunkShift;
+    private final long slotMask;
+    private final long maxSize;
+    private long size;
+
+    /**
+     * Constructs a new, empty PositionSet that uses at most the given amount of memory.
+     *
+     * @param bytes        the memory budget; the set uses the largest power of two slots that fits
+     * @param payloadBytes the size of the payload of every entry
+     */
+    public PositionSet(long bytes, int payloadBytes) {
+        this.payloadBytes = payloadBytes;
+        this.slotBytes = Integer.highestOneBit(KEY_BYTES + payloadBytes - 1) << 1;
+        long slots = Long.highestOneBit(Math.max(1, bytes / slotBytes));
+        int slotsPerChunk = (int) Math.min(slots, CHUNK_BYTES / slotBytes);
+        this.slotsPerChunkShift = Integer.numberOfTrailingZeros(slotsPerChunk);
+        this.chunks = new ByteBuffer[(int) (slots / slotsPerChunk)];
+        for (int i = 0; i < chunks.length; i++) {
+            chunks[i] = ByteBuffer.allocateDirect(slotsPerChunk * slotBytes);
+        }
+        this.slotMask = slots - 1;
+        this.maxSize = (long) (slots * MAX_LOAD);
+    }
+
+    /**
+     * Adds a key with its payload, unless the key is already in the set.
+     *
+     * @param key1    the first half of the key
+     * @param key2    the second half of the key; the slot is chosen by it
+     * @param payload the buffer holding the payload
+     * @param offset  the offset of the payload in the buffer
+     * @return true if the key was added, false if it was already in the set
+     * @throws IllegalStateException if the set is full
+     */
+    public boolean add(long key1, long key2, ByteBuffer payload, int offset) {
+        if (key1 == 0 && key2 == 0) {
+            throw new IllegalArgumentException("The key (0, 0) marks empty slots");
+        }
+        for (long slot = mix(key2) & slotMask; ; slot = (slot + 1) & slotMask) {
+            ByteBuffer chunk = chunks[(int) (slot >>> slotsPerChunkShift)];
+            int base = (int) (slot & ((1L << slotsPerChunkShift) - 1)) * slotBytes;
+            long stored1 = chunk.getLong(base);
+            long stored2 = chunk.getLong(base + Long.BYTES);
+            if (stored1 == key1 && stored2 == key2) {
+                return false;
+            }
+            if (stored1 == 0 && stored2 == 0) {
+                if (size >= maxSize) {
+                    throw new IllegalStateException("PositionSet is full");
+                }
+                chunk.putLong(base, key1).putLong(base + Long.BYTES, key2);
+                chunk.put(base + KEY_BYTES, payload, offset, payloadBytes);
+                size++;
+                return true;
+            }
+        }
+    }
+
+    /**
+     * Checks whether the set has reached its maximum load, so that add may fail.
+     *
+     * @return true if no more keys can be added
+     */
+    public boolean isFull() {
+        return size >= maxSize;
+    }
+
+    public long size() {
+        return size;
+    }
+
+    /**
+     * Returns the number of keys the set can hold.
+     *
+     * @return the maximum size
+     */
+    public long capacity() {
+        return maxSize;
+    }
+
+    /**
+     * Returns the number of slots, for iterating with copyEntry.
+     *
+     * @return the number of slots
+     */
+    public long slots() {
+        return slotMask + 1;
+    }
+
+    /**
+     * Copies the entry of a slot, the key and then the payload, to a buffer.
+     *
+     * @param slot the slot, below slots()
+     * @param to   the buffer to copy to, at its position, which is advanced
+     * @return false if the slot is empty, in which case nothing is copied
+     */
+    public boolean copyEntry(long slot, ByteBuffer to) {
+        ByteBuffer chunk = chunks[(int) (slot >>> slotsPerChunkShift)];
+        int base = (int) (slot & ((1L << slotsPerChunkShift) - 1)) * slotBytes;
+        if (chunk.getLong(base) == 0 && chunk.getLong(base + Long.BYTES) == 0) {
+            return false;
+        }
+        to.put(to.position(), chunk, base, KEY_BYTES + payloadBytes);
+        to.position(to.position() + KEY_BYTES + payloadBytes);
+        return true;
+    }
+
+    /**
+     * Moves the entry of a slot, the key and then the payload, to a buffer and empties the slot. Taking every
+     * slot in turn empties the set without the cost of clear.
+     *
+     * @param slot the slot, below slots()
+     * @param to   the buffer to copy to, at its position, which is advanced
+     * @return false if the slot is empty, in which case nothing is copied
+     */
+    public boolean takeEntry(long slot, ByteBuffer to) {
+        if (!copyEntry(slot, to)) {
+            return false;
+        }
+        ByteBuffer chunk = chunks[(int) (slot >>> slotsPerChunkShift)];
+        int base = (int) (slot & ((1L << slotsPerChunkShift) - 1)) * slotBytes;
+        chunk.putLong(base, 0).putLong(base + Long.BYTES, 0);
+        size--;
+        return true;
+    }
+
+    /**
+     * Removes every entry.
+     */
+    public void clear() {
+        byte[] zeros = new byte[64 * 1024];
+        for (ByteBuffer chunk : chunks) {
+            for (int offset = 0; offset < chunk.capacity(); offset += zeros.length) {
+                chunk.put(offset, zeros, 0, Math.min(zeros.length, chunk.capacity() - offset));
+            }
+        }
+        size = 0;
+    }
+
+    /**
+     * Spreads the bits of a key half over the slot index.
+     */
+    private static long mix(long key) {
+        key = (key ^ (key >>> 33)) * 0xFF51AFD7ED558CCDL;
+        key = (key ^ (key >>> 33)) * 0xC4CEB9FE1A85EC53L;
+        return key ^ (key >>> 33);
+    }
+}
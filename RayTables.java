@@ -0,0 +1,77 @@
+import java.util.Arrays;
+
+/**
+ * The RayTables class holds the rays of the board, computed once when the class is loaded.
+ * For every square and every direction (in the order of GameLogic.DIRECTIONS) it keeps the squares
+ * from the nearest to the edge of the board, both as an int array and as a 64-bit mask,
+ * so the game logic can walk or mask a line without bounds checks and without allocating anything.
+ */
+public final class RayTables {
+    public static final int DIRECTION_COUNT = 8; // the number of directions of a ray
+    private static final int BOARD_SIZE = 8;
+    private static final int[][] DIRECTIONS = {{0, 1}, {0, -1}, {1, 0}, {-1, 0}, {1, 1}, {1, -1}, {-1, 1}, {-1, -1}};
+    private static final int[][][] SQUARES = new int[BOARD_SIZE * BOARD_SIZE][DIRECTION_COUNT][];
+    private static final long[][] MASKS = new long[BOARD_SIZE * BOARD_SIZE][DIRECTION_COUNT];
+
+    static {
+        for (int square = 0; square < BOARD_SIZE * BOARD_SIZE; square++) {
+            for (int d = 0; d < DIRECTION_COUNT; d++) {
+                int row = square / BOARD_SIZE + DIRECTIONS[d][0];
+                int col = square % BOARD_SIZE + DIRECTIONS[d][1];
+                int length = 0;
+                int[] ray = new int[BOARD_SIZE - 1];
+                while (row >= 0 && row < BOARD_SIZE && col >= 0 && col < BOARD_SIZE) {
+                    ray[length++] = row * BOARD_SIZE + col;
+                    MASKS[square][d] |= 1L << (row * BOARD_SIZE + col);
+                    row += DIRECTIONS[d][0];
+                    col += DIRECTIONS[d][1];
+                }
+                SQUARES[square][d] = Arrays.copyOf(ray, length);
+            }
+        }
+    }
+
+    private RayTables() {
+    }
+
+    /**
+     * Returns the squares of a ray, from the square next to the start to the edge of the board.
+     * The returned array is shared and must not be modified.
+     *
+     * @param square    the start square (row * 8 + col), which is not part of the ray
+     * @param direction the index of the direction
+     * @return the squares of the ray, possibly empty
+     */
+    public static int[] squares(int square, int direction) {
+        return SQUARES[square][direction];
+    }
+
+    /**
+     * Returns the squares of a ray as a mask.
+     *
+     * @param square    the start square (row * 8 + col), which is not part of the ray
+     * @param direction the index of the direction
+     * @return the mask of the squares of the ray
+     */
+    public static long mask(int square, int direction) {
+        return MASKS[square][direction];
+    }
+
+    /**
+     * Returns the first square of the ray that is in the given mask.
+     *
+     * @param square    the start square (row * 8 + col)
+     * @param direction the index of the direction
+     * @param squares   the mask to search
+     * @return the nearest square of the ray found in the mask, or -1 if there is none
+     */
+    public static int firstIn(int square, int direction, long squares) {
+        long found = MASKS[square][direction] & squares;
+        if (found == 0) {
+            return -1;
+        }
+        // rays towards higher squares meet their lowest bit first, the others their highest
+        boolean increasing = DIRECTIONS[direction][0] * BOARD_SIZE + DIRECTIONS[direction][1] > 0;
+        return increasing ? Long.numberOfTrailingZeros(found) : 63 - Long.numberOfLeadingZeros(found);
+    }
+}
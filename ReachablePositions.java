@@ -0,0 +1,291 @@
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Counts the distinct positions reachable at every ply from the initial position, breadth first.
+ * A position is the whole state: the discs with their owners and types, the special discs left to both players
+ * and the player to move. Every ply is a file of unique positions; the positions of the next ply are the
+ * successors of its records, deduplicated in an off-heap PositionSet by a 128-bit key: the Zobrist hash and a
+ * second, independent hash of the state. With billions of positions a collision of both is still very unlikely.
+ * When the set fills up, its entries are spilled to 64 partition files by the top bits of their key and
+ * the set is emptied; at the end of the ply every partition is deduplicated on its own, spilling again by the
+ * next bits if it still does not fit.
+ * Run with: java ReachablePositions [depth] [memory MB] [work directory]
+ */
+public class ReachablePositions {
+    private static final int PAYLOAD_BYTES = 4 * Long.BYTES + 5; // four masks, four inventories, the side to move
+    private static final int RECORD_BYTES = PositionSet.KEY_BYTES + PAYLOAD_BYTES;
+    private static final int PARTITION_BITS = 6;
+    private static final int PARTITIONS = 1 << PARTITION_BITS;
+    private static final int IO_RECORDS = 8192; // the records read or written at once
+    private static final int MAX_MOVES = 3 * 64; // every square with every disc type
+
+    private final PositionSet set;
+    private final Path directory;
+    private final BitboardGameLogic game = new BitboardGameLogic();
+    private final ByteBuffer record = ByteBuffer.allocateDirect(RECORD_BYTES);
+    private final int[] moves = new int[MAX_MOVES];
+    private long spilled; // the records written to partition files during the current ply
+    private int nextFile; // numbers the partition files
+
+    /**
+     * Constructs a new ReachablePositions.
+     *
+     * @param memoryBytes the memory of the off-heap set
+     * @param directory   the directory of the ply and partition files
+     */
+    public ReachablePositions(long memoryBytes, Path directory) {
+        this.set = new PositionSet(memoryBytes, PAYLOAD_BYTES);
+        this.directory = directory;
+        game.setPlayers(new HumanPlayer(true), new HumanPlayer(false));
+    }
+
+    public static void main(String[] args) throws IOException {
+        int depth = args.length > 0 ? Integer.parseInt(args[0]) : 8;
+        long memory = (args.length > 1 ? Long.parseLong(args[1]) : 256) * 1024 * 1024;
+        Path directory = args.length > 2 ? Path.of(args[2]) : Files.createTempDirectory("reachable");
+        Files.createDirectories(directory);
+        ReachablePositions reachable = new ReachablePositions(memory, directory);
+
+        GameLogic start = new GameLogic(GameEventListener.NONE); // the initial position of initializeBoard
+        start.setPlayers(new HumanPlayer(true), new HumanPlayer(false));
+        start.reset();
+        Path ply = directory.resolve("ply-0");
+        try (RecordWriter writer = new RecordWriter(ply)) {
+            reachable.put(BitboardGameLogic.copyOf(start));
+            writer.write(reachable.record);
+        }
+
+        System.out.printf("set capacity %d positions%n", reachable.set.capacity());
+        System.out.printf("%4s %16s %18s %14s %10s%n", "ply", "unique", "successors", "spilled", "seconds");
+        for (int p = 1; p <= depth; p++) {
+            long begin = System.nanoTime();
+            Path next = directory.resolve("ply-" + p);
+            long[] counts = reachable.expand(ply, next);
+            Files.delete(ply);
+            ply = next;
+            System.out.printf("%4d %16d %18d %14d %10.1f%n", p, counts[0], counts[1], reachable.spilled,
+                    (System.nanoTime() - begin) / 1e9);
+        }
+        Files.delete(ply);
+    }
+
+    /**
+     * Writes the unique successors of the positions of one ply file to another.
+     *
+     * @param from the file of the positions
+     * @param to   the file of their unique successors
+     * @return the number of unique successors and the number of successors with duplicates
+     * @throws IOException if a file can not be read or written
+     */
+    public long[] expand(Path from, Path to) throws IOException {
+        spilled = 0;
+        long successors = 0;
+        Dedup dedup = new Dedup(0);
+        try (FileChannel in = FileChannel.open(from, StandardOpenOption.READ)) {
+            ByteBuffer buffer = ByteBuffer.allocateDirect(IO_RECORDS * RECORD_BYTES);
+            while (read(in, buffer)) {
+                for (int offset = 0; offset < buffer.limit(); offset += RECORD_BYTES) {
+                    load(buffer, offset);
+                    int count = game.generateMoves(moves);
+                    for (int i = 0; i < count; i++) {
+                        game.makeMove(moves[i]);
+                        put(game);
+                        dedup.add(record);
+                        game.unmakeMove();
+                    }
+                    successors += count;
+                }
+            }
+        }
+        try (RecordWriter out = new RecordWriter(to)) {
+            return new long[]{dedup.finish(out), successors};
+        }
+    }
+
+    /**
+     * Deduplicates a stream of records, in the set while it fits and by partition files otherwise.
+     */
+    private final class Dedup {
+        private final int shift; // the key bits already used to partition the records
+        private Path[] partitions; // null until the first spill
+        private RecordWriter[] writers;
+
+        Dedup(int shift) {
+            this.shift = shift;
+        }
+
+        void add(ByteBuffer entry) throws IOException {
+            if (set.isFull()) {
+                spill();
+            }
+            set.add(entry.getLong(0), entry.getLong(Long.BYTES), entry, PositionSet.KEY_BYTES);
+        }
+
+        /**
+         * Writes the unique records to the output and empties the set.
+         *
+         * @return the number of unique records
+         */
+        long finish(RecordWriter out) throws IOException {
+            if (partitions == null) {
+                return drain(out, null);
+            }
+            spill();
+            long count = 0;
+            for (int i = 0; i < PARTITIONS; i++) {
+                writers[i].close();
+                if (shift + 2 * PARTITION_BITS > Long.SIZE) {
+                    throw new IllegalStateException("A partition does not fit in memory; give the set more");
+                }
+                Dedup inner = new Dedup(shift + PARTITION_BITS);
+                try (FileChannel in = FileChannel.open(partitions[i], StandardOpenOption.READ)) {
+                    ByteBuffer buffer = ByteBuffer.allocateDirect(IO_RECORDS * RECORD_BYTES);
+                    while (read(in, buffer)) {
+                        for (int offset = 0; offset < buffer.limit(); offset += RECORD_BYTES) {
+                            record.clear();
+                            record.put(0, buffer, offset, RECORD_BYTES);
+                            inner.add(record);
+                        }
+                    }
+                }
+                Files.delete(partitions[i]);
+                count += inner.finish(out);
+            }
+            return count;
+        }
+
+        private void spill() throws IOException {
+            if (partitions == null) {
+                partitions = new Path[PARTITIONS];
+                writers = new RecordWriter[PARTITIONS];
+                for (int i = 0; i < PARTITIONS; i++) {
+                    partitions[i] = directory.resolve("spill-" + nextFile++);
+                    writers[i] = new RecordWriter(partitions[i]);
+                }
+            }
+            spilled += drain(null, this);
+        }
+
+        private int partition(ByteBuffer entry) {
+            return (int) (entry.getLong(0) >>> (Long.SIZE - PARTITION_BITS - shift)) & (PARTITIONS - 1);
+        }
+    }
+
+    /**
+     * Moves every entry of the set to the output, or to the partition files of a Dedup, leaving the set empty.
+     *
+     * @return the number of entries
+     */
+    private long drain(RecordWriter out, Dedup partitioned) throws IOException {
+        ByteBuffer entry = ByteBuffer.allocateDirect(RECORD_BYTES);
+        long count = 0;
+        for (long slot = 0; slot < set.slots(); slot++) {
+            entry.clear();
+            if (set.takeEntry(slot, entry)) {
+                (partitioned == null ? out : partitioned.writers[partitioned.partition(entry)]).write(entry);
+                count++;
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Fills the record with the key and the state of a position.
+     */
+    private void put(BitboardGameLogic position) {
+        long first = position.getDiscMask(true);
+        long second = position.getDiscMask(false);
+        long bombs = position.getBombMask();
+        long unflippable = position.getUnflippableMask();
+        int inventory = position.getBombsLeft(true) << 24 | position.getBombsLeft(false) << 16
+                | position.getUnflippablesLeft(true) << 8 | position.getUnflippablesLeft(false);
+        boolean firstToMove = position.isFirstPlayerTurn();
+        long key2 = mix(mix(mix(mix(first) ^ second) ^ bombs) ^ unflippable)
+                ^ mix(inventory * 2L + (firstToMove ? 1 : 0));
+        long key1 = position.getHash();
+        record.clear();
+        record.putLong(key1).putLong(key1 == 0 && key2 == 0 ? 1 : key2) // (0, 0) marks empty slots
+                .putLong(first).putLong(second).putLong(bombs).putLong(unflippable)
+                .putInt(inventory).put((byte) (firstToMove ? 1 : 0));
+    }
+
+    /**
+     * Sets the game to the position of the record at the given offset.
+     */
+    private void load(ByteBuffer buffer, int offset) {
+        int state = offset + PositionSet.KEY_BYTES;
+        int inventory = buffer.getInt(state + 4 * Long.BYTES);
+        game.setState(buffer.getLong(state), buffer.getLong(state + 8), buffer.getLong(state + 16),
+                buffer.getLong(state + 24), inventory >>> 24, inventory >>> 16 & 0xFF, inventory >>> 8 & 0xFF,
+                inventory & 0xFF, buffer.get(state + 4 * Long.BYTES + 4) != 0);
+    }
+
+    /**
+     * Reads the next whole records of a file into the buffer, flipped for reading.
+     *
+     * @return false at the end of the file
+     */
+    private static boolean read(FileChannel in, ByteBuffer buffer) throws IOException {
+        buffer.clear();
+        while (buffer.hasRemaining() && in.read(buffer) > 0) {
+            // fill the buffer
+        }
+        buffer.flip();
+        buffer.limit(buffer.limit() - buffer.limit() % RECORD_BYTES);
+        return buffer.hasRemaining();
+    }
+
+    /**
+     * Spreads the bits of a long, as the finalizer of MurmurHash3 does.
+     */
+    private static long mix(long value) {
+        value = (value ^ (value >>> 33)) * 0xFF51AFD7ED558CCDL;
+        value = (value ^ (value >>> 33)) * 0xC4CEB9FE1A85EC53L;
+        return value ^ (value >>> 33);
+    }
+
+    /**
+     * Appends records to a file through a direct buffer.
+     */
+    private static final class RecordWriter implements AutoCloseable {
+        private final FileChannel channel;
+        private final ByteBuffer buffer = ByteBuffer.allocateDirect(IO_RECORDS * RECORD_BYTES);
+
+        RecordWriter(Path file) throws IOException {
+            channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                    StandardOpenOption.TRUNCATE_EXISTING);
+        }
+
+        /**
+         * Appends the record in the buffer, from 0 to its position.
+         */
+        void write(ByteBuffer entry) throws IOException {
+            if (buffer.remaining() < RECORD_BYTES) {
+                flush();
+            }
+            buffer.put(buffer.position(), entry, 0, RECORD_BYTES);
+            buffer.position(buffer.position() + RECORD_BYTES);
+        }
+
+        private void flush() throws IOException {
+            buffer.flip();
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+            buffer.clear();
+        }
+
+        @Override
+        public void close() throws IOException {
+            if (channel.isOpen()) {
+                flush();
+                channel.close();
+            }
+        }
+    }
+}
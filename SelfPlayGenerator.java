@@ -0,0 +1,145 @@
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Plays self-play games without the GUI on every core and streams their positions to a TrainingData file.
+ * Each side is played by any registered AIPlayer type on a BitboardGameLogic that reports no events.
+ * The first moves of every game are random, so that deterministic players do not repeat the same game.
+ * Every worker thread writes each finished game to the file with a single append.
+ * Run with: java SelfPlayGenerator [file] [games] [first player type] [second player type] [random moves] [threads]
+ */
+public class SelfPlayGenerator {
+    private static final int MAX_PLY = 64; // every move fills one square
+
+    private final AtomicLong gamesLeft;
+    private final AtomicLong positions = new AtomicLong();
+    private final String firstType;
+    private final String secondType;
+    private final int randomMoves;
+
+    /**
+     * Constructs a new SelfPlayGenerator.
+     *
+     * @param games       the number of games to play
+     * @param firstType   the AIPlayer type of the first player
+     * @param secondType  the AIPlayer type of the second player
+     * @param randomMoves the number of random moves at the start of every game
+     */
+    public SelfPlayGenerator(long games, String firstType, String secondType, int randomMoves) {
+        this.gamesLeft = new AtomicLong(games);
+        this.firstType = firstType;
+        this.secondType = secondType;
+        this.randomMoves = randomMoves;
+    }
+
+    public static void main(String[] args) throws IOException, InterruptedException {
+        AIPlayer.registerAllAIPlayers();
+        Path file = Path.of(args.length > 0 ? args[0] : "selfplay.data");
+        long games = args.length > 1 ? Long.parseLong(args[1]) : 100_000;
+        String firstType = args.length > 2 ? args[2] : "GreedyAI";
+        String secondType = args.length > 3 ? args[3] : "GreedyAI";
+        int randomMoves = args.length > 4 ? Integer.parseInt(args[4]) : 8;
+        int threads = args.length > 5 ? Integer.parseInt(args[5]) : Runtime.getRuntime().availableProcessors();
+        SelfPlayGenerator generator = new SelfPlayGenerator(games, firstType, secondType, randomMoves);
+        long begin = System.nanoTime();
+        generator.run(file, threads);
+        double seconds = (System.nanoTime() - begin) / 1e9;
+        System.out.printf("%d games, %d positions written to %s in %.1f s (%.0f games/s)%n",
+                games, generator.positions.get(), file, seconds, games / seconds);
+    }
+
+    /**
+     * Plays all the games and writes a new training file.
+     *
+     * @param file    the file to write
+     * @param threads the number of worker threads
+     * @throws IOException          if the file can not be written
+     * @throws InterruptedException if the thread is interrupted while waiting for the workers
+     */
+    public void run(Path file, int threads) throws IOException, InterruptedException {
+        Files.deleteIfExists(file); // an APPEND channel can not truncate
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE_NEW, StandardOpenOption.APPEND)) {
+            ByteBuffer header = ByteBuffer.allocate(TrainingData.HEADER_BYTES);
+            TrainingData.putHeader(header);
+            channel.write(header.flip());
+
+            ExecutorService pool = Executors.newFixedThreadPool(threads);
+            List<Future<?>> workers = new ArrayList<>();
+            for (int i = 0; i < threads; i++) {
+                SplittableRandom random = new SplittableRandom(System.nanoTime() + i);
+                workers.add(pool.submit(() -> {
+                    work(channel, random);
+                    return null;
+                }));
+            }
+            pool.shutdown();
+            try {
+                for (Future<?> worker : workers) {
+                    worker.get();
+                }
+            } catch (ExecutionException e) {
+                throw new IOException("Self-play worker failed", e.getCause());
+            } finally {
+                pool.shutdownNow();
+            }
+        }
+    }
+
+    /**
+     * The loop of one worker: plays games until none are left.
+     */
+    private void work(FileChannel channel, SplittableRandom random) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocateDirect(MAX_PLY * TrainingData.RECORD_BYTES);
+        boolean[] firstToMove = new boolean[MAX_PLY];
+        int[] moves = new int[3 * MAX_PLY];
+        while (gamesLeft.getAndDecrement() > 0) {
+            AIPlayer first = AIPlayer.createAIPlayer(firstType, true);
+            AIPlayer second = AIPlayer.createAIPlayer(secondType, false);
+            BitboardGameLogic game = new BitboardGameLogic();
+            game.setPlayers(first, second);
+            game.reset();
+
+            int plies = 0;
+            buffer.clear();
+            while (!game.isGameOver()) {
+                TrainingData.put(buffer, game, 0); // the result is filled in when the game is over
+                firstToMove[plies] = game.isFirstPlayerTurn();
+                plies++;
+                AIPlayer current = game.isFirstPlayerTurn() ? first : second;
+                Move move;
+                if (plies <= randomMoves) {
+                    int count = game.generateMoves(moves);
+                    move = PackedMove.toMove(moves[random.nextInt(count)], current);
+                } else {
+                    move = current.makeMove(game);
+                }
+                if (!game.locate_disc(move.position(), move.disc())) {
+                    throw new IllegalStateException(current.getClass().getSimpleName() + " played an illegal move");
+                }
+            }
+
+            int firstDifference = game.getDiscCount(true) - game.getDiscCount(false);
+            for (int i = 0; i < plies; i++) {
+                int difference = firstToMove[i] ? firstDifference : -firstDifference;
+                buffer.put((i + 1) * TrainingData.RECORD_BYTES - 1, (byte) difference);
+            }
+            buffer.flip();
+            while (buffer.hasRemaining()) {
+                channel.write(buffer); // the channel appends each write whole, so games never interleave
+            }
+            positions.addAndGet(plies);
+        }
+    }
+}
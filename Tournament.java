@@ -0,0 +1,201 @@
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * A command line tournament between registered AIPlayer types, without the GUI.
+ * In a round robin every pair of types plays; in a gauntlet the first type plays every other type.
+ * Every game runs as its own task on a thread pool with its own GameLogic and players, and every pairing
+ * alternates colours. Only the thread that collects finished games updates the tallies, so the games share no
+ * counters. Every player searches on a single thread (see AIPlayer.createSingleThreadedAIPlayer), so a game keeps
+ * one core busy and, with no more games at once than cores, the ratings do not depend on the threads argument.
+ * A game with equal disc counts is won by the first player under the rules of GameLogic; the tournament
+ * reports it as a draw, so that colour does not decide it.
+ * With -Dreversi.archive=file every game is also written to a GameRecordWriter archive, by the collecting thread.
+ * Run with: java Tournament [round-robin|gauntlet] [games per pairing] [threads] [AIPlayer types...]
+ */
+public class Tournament {
+    private static final double Z_95 = 1.959964; // the two-sided 95% quantile of the normal distribution
+    private static final int WIN = 0;
+    private static final int DRAW = 1;
+    private static final int LOSS = 2;
+    private static final int MAX_PLY = 64; // every move fills one square
+
+    private final List<String> types;
+    private final long[][][] results; // [player][opponent][WIN, DRAW or LOSS], for the player
+    private long games;
+    private GameRecordWriter archive; // null unless the games are archived
+
+    /**
+     * Constructs a new Tournament between the given AIPlayer types.
+     *
+     * @param types the registered names of the AIPlayer types
+     */
+    public Tournament(List<String> types) {
+        this.types = types;
+        this.results = new long[types.size()][types.size()][3];
+    }
+
+    public static void main(String[] args) throws InterruptedException, IOException {
+        AIPlayer.registerAllAIPlayers();
+        boolean gauntlet = args.length > 0 && args[0].equals("gauntlet");
+        int gamesPerPairing = args.length > 1 ? Integer.parseInt(args[1]) : 100;
+        int threads = args.length > 2 ? Integer.parseInt(args[2]) : Runtime.getRuntime().availableProcessors();
+        List<String> types = args.length > 3 ? List.of(args).subList(3, args.length) : AIPlayer.getAIPlayerTypes();
+        Tournament tournament = new Tournament(types);
+        String archive = System.getProperty("reversi.archive");
+        if (archive != null) {
+            tournament.archive = new GameRecordWriter(FileChannel.open(Path.of(archive), StandardOpenOption.CREATE,
+                    StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING));
+        }
+        long begin = System.nanoTime();
+        try {
+            tournament.play(gauntlet, gamesPerPairing, threads);
+        } finally {
+            if (tournament.archive != null) {
+                tournament.archive.close();
+            }
+        }
+        double seconds = (System.nanoTime() - begin) / 1e9;
+        tournament.report(seconds);
+    }
+
+    /**
+     * Plays all the games of the tournament.
+     *
+     * @param gauntlet        true for a gauntlet of the first type, false for a round robin
+     * @param gamesPerPairing the number of games of every pairing, half of them with each colour
+     * @param threads         the number of games played at once
+     * @throws InterruptedException if the thread is interrupted while waiting for the games
+     * @throws IOException          if a game can not be archived
+     */
+    public void play(boolean gauntlet, int gamesPerPairing, int threads) throws InterruptedException, IOException {
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        CompletionService<GameResult> finished = new ExecutorCompletionService<>(pool);
+        int submitted = 0;
+        for (int a = 0; a < types.size(); a++) {
+            for (int b = a + 1; b < types.size(); b++) {
+                if (gauntlet && a != 0) {
+                    continue;
+                }
+                for (int game = 0; game < gamesPerPairing; game++) {
+                    int first = game % 2 == 0 ? a : b; // alternate colours
+                    int second = first == a ? b : a;
+                    finished.submit(() -> playGame(first, second));
+                    submitted++;
+                }
+            }
+        }
+        try {
+            for (int i = 0; i < submitted; i++) {
+                record(finished.take().get());
+            }
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Tournament game failed", e.getCause());
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    /**
+     * Plays one game on its own GameLogic.
+     *
+     * @return the indices of the player types, the final disc counts and the packed moves
+     */
+    private GameResult playGame(int first, int second) {
+        AIPlayer player1 = AIPlayer.createSingleThreadedAIPlayer(types.get(first), true);
+        AIPlayer player2 = AIPlayer.createSingleThreadedAIPlayer(types.get(second), false);
+        GameLogic game = new GameLogic(GameEventListener.NONE);
+        game.setPlayers(player1, player2);
+        game.reset();
+        int[] moves = new int[MAX_PLY];
+        int count = 0;
+        while (!game.isGameOver()) {
+            AIPlayer current = game.isFirstPlayerTurn() ? player1 : player2;
+            Move move = current.makeMove(game);
+            if (move == null || !game.locate_disc(move.position(), move.disc())) {
+                throw new IllegalStateException(types.get(current == player1 ? first : second)
+                        + " played an illegal move");
+            }
+            moves[count++] = PackedMove.of(move);
+        }
+        return new GameResult(first, second, game.getDiscCount(true), game.getDiscCount(false), moves, count);
+    }
+
+    private void record(GameResult result) throws IOException {
+        int difference = result.firstDiscs() - result.secondDiscs();
+        int outcome = difference > 0 ? WIN : difference == 0 ? DRAW : LOSS;
+        results[result.first()][result.second()][outcome]++;
+        results[result.second()][result.first()][2 - outcome]++; // WIN and LOSS swap for the other player
+        games++;
+        if (archive != null) {
+            archive.write(types.get(result.first()), types.get(result.second()), result.firstDiscs(),
+                    result.secondDiscs(), result.moves(), result.count());
+        }
+    }
+
+    /**
+     * A finished game: the indices of the player types, the final disc counts and the packed moves.
+     */
+    private record GameResult(int first, int second, int firstDiscs, int secondDiscs, int[] moves, int count) {
+    }
+
+    /**
+     * Prints the standings with Elo ratings against the field, the pairings and the game rate.
+     *
+     * @param seconds the wall time of the tournament
+     */
+    public void report(double seconds) {
+        System.out.printf("%-24s %7s %7s %7s %7s %7s %18s%n", "player", "games", "wins", "draws", "losses",
+                "score", "Elo (95% CI)");
+        for (int player = 0; player < types.size(); player++) {
+            long[] total = new long[3];
+            for (long[] pairing : results[player]) {
+                for (int outcome = 0; outcome < 3; outcome++) {
+                    total[outcome] += pairing[outcome];
+                }
+            }
+            printLine(types.get(player), total);
+        }
+        System.out.println();
+        for (int a = 0; a < types.size(); a++) {
+            for (int b = a + 1; b < types.size(); b++) {
+                if (results[a][b][WIN] + results[a][b][DRAW] + results[a][b][LOSS] > 0) {
+                    printLine(types.get(a) + "-" + types.get(b), results[a][b]);
+                }
+            }
+        }
+        System.out.printf("%n%d games in %.1f s: %.1f games/s%n", games, seconds, games / seconds);
+    }
+
+    private static void printLine(String name, long[] outcomes) {
+        long n = outcomes[WIN] + outcomes[DRAW] + outcomes[LOSS];
+        if (n == 0) {
+            System.out.printf("%-24s %7d%n", name, 0);
+            return;
+        }
+        double score = (outcomes[WIN] + 0.5 * outcomes[DRAW]) / n;
+        double variance = (outcomes[WIN] * (1 - score) * (1 - score) + outcomes[DRAW] * (0.5 - score) * (0.5 - score)
+                + outcomes[LOSS] * score * score) / n;
+        double margin = Z_95 * Math.sqrt(variance / n);
+        double elo = elo(score);
+        String interval = String.format("%+.0f [%+.0f, %+.0f]", elo, elo(score - margin), elo(score + margin));
+        System.out.printf("%-24s %7d %7d %7d %7d %6.1f%% %18s%n",
+                name, n, outcomes[WIN], outcomes[DRAW], outcomes[LOSS], score * 100, interval);
+    }
+
+    /**
+     * Converts a score fraction into an Elo difference; scores of 0 and 1 are kept just inside the range.
+     */
+    private static double elo(double score) {
+        double clamped = Math.max(0.001, Math.min(0.999, score));
+        return -400 * Math.log10(1 / clamped - 1);
+    }
+}
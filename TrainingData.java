@@ -0,0 +1,95 @@
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+
+/**
+ * The TrainingData class defines the binary file of self-play positions used to train the PatternEvaluator.
+ * After a header of the magic number and the version (two ints), the file is a sequence of fixed-size records,
+ * so it can be appended to by many threads and read back in independent ranges.
+ * A record (37 bytes, big-endian) describes a position from the point of view of the player to move:
+ * own discs, opponent discs, bomb discs and unflippable discs (4 longs), own and opponent bombs left and own
+ * and opponent unflippable discs left (4 bytes) and the final disc difference of the game for that player
+ * (1 signed byte).
+ */
+public final class TrainingData {
+    public static final int HEADER_BYTES = 8;
+    public static final int RECORD_BYTES = 4 * Long.BYTES + 5;
+    private static final int MAGIC = 0x52565444; // "RVTD"
+    private static final int VERSION = 1;
+
+    private TrainingData() {
+    }
+
+    /**
+     * Writes the file header.
+     *
+     * @param buffer the buffer to write to
+     */
+    public static void putHeader(ByteBuffer buffer) {
+        buffer.putInt(MAGIC).putInt(VERSION);
+    }
+
+    /**
+     * Checks the header of a training file.
+     *
+     * @param channel the open file
+     * @return the number of records in the file
+     * @throws IOException if the file can not be read or is not a training file
+     */
+    public static long checkHeader(FileChannel channel) throws IOException {
+        ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES);
+        while (header.hasRemaining() && channel.read(header, header.position()) > 0) {
+            // read the whole header
+        }
+        if (header.position() < HEADER_BYTES || header.getInt(0) != MAGIC || header.getInt(4) != VERSION) {
+            throw new IOException("Not a training data file");
+        }
+        return (channel.size() - HEADER_BYTES) / RECORD_BYTES;
+    }
+
+    /**
+     * Writes one record.
+     *
+     * @param buffer     the buffer to write to
+     * @param game       the position
+     * @param difference the final disc difference of the game for the player to move in the position
+     */
+    public static void put(ByteBuffer buffer, BitboardGameLogic game, int difference) {
+        boolean first = game.isFirstPlayerTurn();
+        buffer.putLong(game.getDiscMask(first))
+                .putLong(game.getDiscMask(!first))
+                .putLong(game.getBombMask())
+                .putLong(game.getUnflippableMask())
+                .put((byte) game.getBombsLeft(first))
+                .put((byte) game.getBombsLeft(!first))
+                .put((byte) game.getUnflippablesLeft(first))
+                .put((byte) game.getUnflippablesLeft(!first))
+                .put((byte) difference);
+    }
+
+    /**
+     * Lists the PatternEvaluator weights of the record at the given offset.
+     *
+     * @param buffer  the buffer holding the record
+     * @param offset  the offset of the record in the buffer
+     * @param indices receives the weight indices; it needs PatternEvaluator.MAX_FEATURES entries
+     * @return the number of indices written
+     */
+    public static int features(ByteBuffer buffer, int offset, int[] indices) {
+        int inventory = offset + 4 * Long.BYTES;
+        return PatternEvaluator.features(buffer.getLong(offset), buffer.getLong(offset + 8),
+                buffer.getLong(offset + 16), buffer.getLong(offset + 24), buffer.get(inventory),
+                buffer.get(inventory + 1), buffer.get(inventory + 2), buffer.get(inventory + 3), indices);
+    }
+
+    /**
+     * Returns the final disc difference stored in the record at the given offset.
+     *
+     * @param buffer the buffer holding the record
+     * @param offset the offset of the record in the buffer
+     * @return the disc difference for the player to move
+     */
+    public static int difference(ByteBuffer buffer, int offset) {
+        return buffer.get(offset + RECORD_BYTES - 1);
+    }
+}
@@ -0,0 +1,244 @@
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * The TranspositionTable class is a fixed-size hash table of search results, keyed by the Zobrist hash of a state.
+ * It can be shared by any number of search threads without locks. Every entry is two longs: the packed data and
+ * the key XOR the data. A reader accepts an entry only if the XOR of the two gives back its key, so an entry torn
+ * by two threads writing at once is simply treated as a miss.
+ * Each bucket holds two entries: one kept for the deepest search (replaced only by a deeper or newer result)
+ * and one that is always replaced.
+ */
+public class TranspositionTable {
+    public static final int EXACT = 1; // the score is exact
+    public static final int LOWER_BOUND = 2; // the real score is at least the stored score (fail high)
+    public static final int UPPER_BOUND = 3; // the real score is at most the stored score (fail low)
+    public static final int NO_MOVE = 0xFF; // stored when there is no best move
+    public static final long MISS = 0; // returned by probe when the state is not in the table
+
+    private static final VarHandle SLOTS = MethodHandles.arrayElementVarHandle(long[].class);
+    private static final int LONGS_PER_BUCKET = 4; // two entries of two longs
+    private static final long VALID = 1L << 63; // set in every stored entry, so the data of an entry is never MISS
+
+    private final long[] table;
+    private final int bucketMask;
+    private volatile int generation; // the age of new entries, advanced by newSearch
+    private final LongAdder probes = new LongAdder();
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder collisions = new LongAdder();
+    private final LongAdder stores = new LongAdder();
+
+    /**
+     * Constructs a new TranspositionTable that uses at most the given amount of memory.
+     *
+     * @param megabytes the memory budget in MB; the table uses the largest power of two buckets that fits, up to
+     *                  2^28 buckets (8 GB), the largest that one array can hold
+     */
+    public TranspositionTable(int megabytes) {
+        long bytes = Math.max(1, megabytes) * 1024L * 1024L;
+        long buckets = Long.highestOneBit(bytes / (LONGS_PER_BUCKET * Long.BYTES));
+        buckets = Math.min(buckets, Integer.highestOneBit(Integer.MAX_VALUE / LONGS_PER_BUCKET)); // the largest array
+        table = new long[(int) buckets * LONGS_PER_BUCKET];
+        bucketMask = (int) buckets - 1;
+    }
+
+    /**
+     * Looks up a state.
+     *
+     * @param key the Zobrist hash of the state
+     * @return the packed data of the entry (read it with score, depth, bound and move), or MISS
+     */
+    public long probe(long key) {
+        probes.increment();
+        int base = bucket(key);
+        boolean occupied = false;
+        for (int entry = base; entry < base + LONGS_PER_BUCKET; entry += 2) {
+            long data = (long) SLOTS.getOpaque(table, entry + 1);
+            long check = (long) SLOTS.getOpaque(table, entry);
+            if (data == MISS) {
+                continue;
+            }
+            if ((check ^ data) == key) {
+                hits.increment();
+                return data;
+            }
+            occupied = true;
+        }
+        if (occupied) {
+            collisions.increment(); // the bucket holds other states
+        }
+        return MISS;
+    }
+
+    /**
+     * Stores a search result.
+     * The deep entry of the bucket is replaced if it holds the same state, an older search or a shallower result;
+     * otherwise the result goes to the always-replace entry.
+     *
+     * @param key   the Zobrist hash of the state
+     * @param move  the best packed move found, or NO_MOVE
+     * @param score the score, between Short.MIN_VALUE and Short.MAX_VALUE
+     * @param depth the search depth of the score, between 0 and 255
+     * @param bound EXACT, LOWER_BOUND or UPPER_BOUND
+     */
+    public void store(long key, int move, int score, int depth, int bound) {
+        stores.increment();
+        int age = generation & 0xFF;
+        long data = VALID | ((long) age << 34) | ((long) (move & 0xFF) << 26) | ((long) bound << 24)
+                | ((long) (depth & 0xFF) << 16) | (score & 0xFFFFL);
+        int deep = bucket(key);
+        long deepData = (long) SLOTS.getOpaque(table, deep + 1);
+        long deepCheck = (long) SLOTS.getOpaque(table, deep);
+        boolean replaceDeep = deepData == MISS
+                || (deepCheck ^ deepData) == key
+                || age(deepData) != age
+                || depth(deepData) <= depth;
+        int entry = replaceDeep ? deep : deep + 2;
+        SLOTS.setOpaque(table, entry, key ^ data);
+        SLOTS.setOpaque(table, entry + 1, data);
+    }
+
+    /**
+     * Starts a new search: entries of earlier searches become the first to be replaced.
+     */
+    public void newSearch() {
+        generation = (generation + 1) & 0xFF;
+    }
+
+    /**
+     * Removes every entry and resets the counters.
+     */
+    public void clear() {
+        for (int i = 0; i < table.length; i++) {
+            SLOTS.setOpaque(table, i, 0L);
+        }
+        probes.reset();
+        hits.reset();
+        collisions.reset();
+        stores.reset();
+    }
+
+    /**
+     * Returns the score of an entry.
+     *
+     * @param data the packed data returned by probe
+     * @return the stored score
+     */
+    public static int score(long data) {
+        return (short) data;
+    }
+
+    /**
+     * Returns the search depth of an entry.
+     *
+     * @param data the packed data returned by probe
+     * @return the stored depth
+     */
+    public static int depth(long data) {
+        return (int) (data >>> 16) & 0xFF;
+    }
+
+    /**
+     * Returns the bound type of an entry.
+     *
+     * @param data the packed data returned by probe
+     * @return EXACT, LOWER_BOUND or UPPER_BOUND
+     */
+    public static int bound(long data) {
+        return (int) (data >>> 24) & 3;
+    }
+
+    /**
+     * Returns the best move of an entry.
+     *
+     * @param data the packed data returned by probe
+     * @return the stored packed move, or NO_MOVE
+     */
+    public static int move(long data) {
+        return (int) (data >>> 26) & 0xFF;
+    }
+
+    /**
+     * Returns the number of lookups since the table was created or cleared.
+     *
+     * @return the number of calls to probe
+     */
+    public long getProbes() {
+        return probes.sum();
+    }
+
+    /**
+     * Returns the number of lookups that found their state.
+     *
+     * @return the number of hits
+     */
+    public long getHits() {
+        return hits.sum();
+    }
+
+    /**
+     * Returns the number of lookups that missed while their bucket held other states.
+     *
+     * @return the number of index collisions
+     */
+    public long getCollisions() {
+        return collisions.sum();
+    }
+
+    /**
+     * Returns the number of stored results.
+     *
+     * @return the number of calls to store
+     */
+    public long getStores() {
+        return stores.sum();
+    }
+
+    /**
+     * Returns the share of lookups that found their state.
+     *
+     * @return the hit rate, between 0 and 1
+     */
+    public double getHitRate() {
+        long total = probes.sum();
+        return total == 0 ? 0 : (double) hits.sum() / total;
+    }
+
+    /**
+     * Returns the number of entries the table can hold.
+     *
+     * @return the capacity in entries
+     */
+    public int getCapacity() {
+        return table.length / 2;
+    }
+
+    /**
+     * Returns the memory the table holds.
+     *
+     * @return the size of the table in bytes
+     */
+    public long getBytes() {
+        return (long) table.length * Long.BYTES;
+    }
+
+    /**
+     * Returns a summary of the counters, for logs.
+     *
+     * @return a string with the probes, hit rate, collisions and stores
+     */
+    @Override
+    public String toString() {
+        return String.format("TranspositionTable{entries=%d, probes=%d, hitRate=%.1f%%, collisions=%d, stores=%d}",
+                getCapacity(), getProbes(), getHitRate() * 100, getCollisions(), getStores());
+    }
+
+    private int bucket(long key) {
+        return ((int) (key ^ (key >>> 32)) & bucketMask) * LONGS_PER_BUCKET;
+    }
+
+    private static int age(long data) {
+        return (int) (data >>> 34) & 0xFF;
+    }
+}
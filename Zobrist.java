@@ -0,0 +1,102 @@
+import java.util.SplittableRandom;
+
+/**
+ * The Zobrist class holds the random keys used to hash complete game states into 64-bit values.
+ * A state is the XOR of one key per occupied square (for its owner and disc type), a key for the player to move
+ * and one key per player for the number of BombDiscs and UnflippableDiscs they have left.
+ * The keys come from a fixed seed, so a hash is the same in every run and can be stored in files.
+ */
+public final class Zobrist {
+    private static final int BOARD_SIZE = 8;
+    private static final int MAX_INVENTORY = 64; // special disc counts are hashed modulo this value
+    private static final long SEED = 0x5EED0F2EE5E25100L;
+    private static final long[][][] SQUARES = new long[2][3][BOARD_SIZE * BOARD_SIZE]; // [owner][disc type][square]
+    private static final long[][] BOMBS = new long[2][MAX_INVENTORY]; // [player][bombs left]
+    private static final long[][] UNFLIPPABLES = new long[2][MAX_INVENTORY]; // [player][unflippable discs left]
+    private static final long SECOND_PLAYER_TO_MOVE;
+
+    static {
+        SplittableRandom random = new SplittableRandom(SEED);
+        for (long[][] owner : SQUARES) {
+            for (long[] type : owner) {
+                for (int square = 0; square < type.length; square++) {
+                    type[square] = random.nextLong();
+                }
+            }
+        }
+        for (int player = 0; player < 2; player++) {
+            for (int count = 0; count < MAX_INVENTORY; count++) {
+                BOMBS[player][count] = random.nextLong();
+                UNFLIPPABLES[player][count] = random.nextLong();
+            }
+        }
+        SECOND_PLAYER_TO_MOVE = random.nextLong();
+    }
+
+    private Zobrist() {
+    }
+
+    /**
+     * Returns the key of a disc on a square.
+     *
+     * @param firstPlayer true if the disc belongs to the first player
+     * @param type        the disc type: PackedMove.SIMPLE, BOMB or UNFLIPPABLE
+     * @param square      the square (row * 8 + col)
+     * @return the key of the disc
+     */
+    public static long disc(boolean firstPlayer, int type, int square) {
+        return SQUARES[firstPlayer ? 0 : 1][type][square];
+    }
+
+    /**
+     * Returns the key to XOR when the disc on a square changes owner.
+     *
+     * @param type   the disc type: PackedMove.SIMPLE, BOMB or UNFLIPPABLE
+     * @param square the square (row * 8 + col)
+     * @return the key of the first player's disc XOR the key of the second player's disc
+     */
+    public static long flip(int type, int square) {
+        return SQUARES[0][type][square] ^ SQUARES[1][type][square];
+    }
+
+    /**
+     * Returns the key of the number of BombDiscs a player has left.
+     *
+     * @param firstPlayer true for the first player, false for the second one
+     * @param count       the number of bombs left
+     * @return the key of the count
+     */
+    public static long bombs(boolean firstPlayer, int count) {
+        return BOMBS[firstPlayer ? 0 : 1][count & (MAX_INVENTORY - 1)];
+    }
+
+    /**
+     * Returns the key of the number of UnflippableDiscs a player has left.
+     *
+     * @param firstPlayer true for the first player, false for the second one
+     * @param count       the number of unflippable discs left
+     * @return the key of the count
+     */
+    public static long unflippables(boolean firstPlayer, int count) {
+        return UNFLIPPABLES[firstPlayer ? 0 : 1][count & (MAX_INVENTORY - 1)];
+    }
+
+    /**
+     * Returns the key XORed into the hash while the second player is to move.
+     *
+     * @return the side-to-move key
+     */
+    public static long secondPlayerToMove() {
+        return SECOND_PLAYER_TO_MOVE;
+    }
+
+    /**
+     * Hashes any game from scratch.
+     *
+     * @param game the game to hash
+     * @return the 64-bit hash of its board, turn and special disc counts
+     */
+    public static long hash(PlayableLogic game) {
+        return BitboardGameLogic.copyOf(game).getHash();
+    }
+}
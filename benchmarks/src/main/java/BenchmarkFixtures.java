@@ -0,0 +1,201 @@
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.function.BooleanSupplier;
+import java.util.function.IntSupplier;
+import java.util.function.Supplier;
+
+/**
+ * Reproducible positions and the operations the JMH benchmarks measure on them.
+ * JMH only accepts benchmarks in a named package, and those can not name the game classes of the default
+ * package, so this class hands every operation out as a JDK functional interface; the benchmarks look the
+ * operations up by reflection once, in their setup, and call them directly afterwards.
+ * Every position is reached by random moves from a fixed seed, with two human players so that moves can be
+ * undone: "opening" (8 moves), "midgame" (24), "bomb-dense" (30, every bomb placed as soon as possible after
+ * move 10), "unflippable-dense" (30, the same with unflippable discs), "endgame" (50) and "finished" (a whole
+ * game).
+ */
+public final class BenchmarkFixtures {
+    private static final long SEED = 0x5EED_2024L;
+    private static final int NO_SPECIALS_BEFORE = 10; // special discs are saved for the middle of the board
+
+    static {
+        AIPlayer.registerAllAIPlayers();
+    }
+
+    private BenchmarkFixtures() {
+    }
+
+    /**
+     * Builds a fixture position on a new GameLogic that reports no events.
+     *
+     * @param name the name of the position
+     * @return the game
+     */
+    public static GameLogic position(String name) {
+        return switch (name) {
+            case "opening" -> play(8, null);
+            case "midgame" -> play(24, null);
+            case "bomb-dense" -> play(30, BombDisc.class);
+            case "unflippable-dense" -> play(30, UnflippableDisc.class);
+            case "endgame" -> play(50, null);
+            case "finished" -> play(Integer.MAX_VALUE, null);
+            default -> throw new IllegalArgumentException("Unknown position: " + name);
+        };
+    }
+
+    /**
+     * GameLogic.ValidMoves on a position.
+     *
+     * @param position the name of the position
+     * @return the operation
+     */
+    public static Supplier<Object> validMoves(String position) {
+        GameLogic game = position(position);
+        return game::ValidMoves;
+    }
+
+    /**
+     * GameLogic.countFlips for every valid move of a position.
+     *
+     * @param position the name of the position
+     * @return the operation, which returns the total number of flips
+     */
+    public static IntSupplier countFlips(String position) {
+        GameLogic game = position(position);
+        List<Position> moves = game.ValidMoves();
+        return () -> {
+            int flips = 0;
+            for (Position move : moves) {
+                flips += game.countFlips(move);
+            }
+            return flips;
+        };
+    }
+
+    /**
+     * GameLogic.locate_disc of the first valid move of a position followed by GameLogic.undoLastMove.
+     *
+     * @param position the name of the position
+     * @return the operation, which returns the disc count of the player who moved after the move
+     */
+    public static IntSupplier locateAndUndo(String position) {
+        GameLogic game = position(position);
+        Runnable[] steps = locateThenUndo(game);
+        return () -> {
+            steps[0].run();
+            steps[1].run();
+            return game.getDiscCount(true);
+        };
+    }
+
+    /**
+     * GameLogic.locate_disc and GameLogic.undoLastMove as two separate steps on the same game, to be called
+     * alternately: the first plays the first valid move of the position and the second takes it back.
+     *
+     * @param position the name of the position
+     * @return the two steps
+     */
+    public static Runnable[] locateThenUndo(String position) {
+        return locateThenUndo(position(position));
+    }
+
+    private static Runnable[] locateThenUndo(GameLogic game) {
+        Position move = game.ValidMoves().get(0);
+        Disc disc = new SimpleDisc(game.isFirstPlayerTurn() ? game.getFirstPlayer() : game.getSecondPlayer());
+        Runnable locate = () -> {
+            if (!game.locate_disc(move, disc)) {
+                throw new IllegalStateException("The fixture move was rejected");
+            }
+        };
+        return new Runnable[]{locate, game::undoLastMove};
+    }
+
+    /**
+     * GameLogic.isGameFinished on a position.
+     *
+     * @param position the name of the position
+     * @return the operation
+     */
+    public static BooleanSupplier isGameFinished(String position) {
+        GameLogic game = position(position);
+        return game::isGameFinished;
+    }
+
+    /**
+     * Plays one whole game of random moves and disc types on a reused GameLogic; every call plays the next
+     * game of the same seeded sequence.
+     *
+     * @return the operation, which returns the final disc difference for the first player
+     */
+    public static IntSupplier randomGame() {
+        GameLogic game = newGame();
+        SplittableRandom random = new SplittableRandom(SEED);
+        return () -> {
+            game.reset();
+            while (!game.isGameOver()) {
+                playRandomMove(game, random, null);
+            }
+            return game.getDiscCount(true) - game.getDiscCount(false);
+        };
+    }
+
+    /**
+     * AIPlayer.makeMove of a registered AIPlayer type for the player to move in a position.
+     *
+     * @param type     the AIPlayer type
+     * @param position the name of the position
+     * @return the operation, which returns the chosen move
+     */
+    public static Supplier<Object> makeMove(String type, String position) {
+        GameLogic game = position(position);
+        AIPlayer player = AIPlayer.createAIPlayer(type, game.isFirstPlayerTurn());
+        return () -> player.makeMove(game);
+    }
+
+    private static GameLogic newGame() {
+        GameLogic game = new GameLogic(GameEventListener.NONE);
+        game.setPlayers(new HumanPlayer(true), new HumanPlayer(false)); // undoLastMove needs two human players
+        game.reset();
+        return game;
+    }
+
+    /**
+     * Plays random moves from the initial position; a seed whose game ends too early is skipped.
+     */
+    private static GameLogic play(int plies, Class<? extends Disc> special) {
+        for (long seed = SEED; ; seed++) {
+            GameLogic game = newGame();
+            SplittableRandom random = new SplittableRandom(seed);
+            for (int ply = 0; ply < plies && !game.isGameOver(); ply++) {
+                boolean early = ply < NO_SPECIALS_BEFORE && special != null;
+                playRandomMove(game, random, early ? SimpleDisc.class : special);
+            }
+            if (plies == Integer.MAX_VALUE || !game.isGameOver()) {
+                return game;
+            }
+        }
+    }
+
+    /**
+     * Plays a random valid move with the given disc type if the player has one left, or with a random disc
+     * type if special is null.
+     */
+    private static void playRandomMove(GameLogic game, SplittableRandom random, Class<? extends Disc> special) {
+        Player player = game.isFirstPlayerTurn() ? game.getFirstPlayer() : game.getSecondPlayer();
+        List<Position> moves = game.ValidMoves();
+        Position move = moves.get(random.nextInt(moves.size()));
+        Disc disc;
+        if (special == BombDisc.class && player.getNumber_of_bombs() > 0) {
+            disc = new BombDisc(player);
+        } else if (special == UnflippableDisc.class && player.getNumber_of_unflippedable() > 0) {
+            disc = new UnflippableDisc(player);
+        } else if (special == null && random.nextInt(16) == 0) { // special discs are rare in random play
+            disc = random.nextBoolean() ? new BombDisc(player) : new UnflippableDisc(player);
+        } else {
+            disc = new SimpleDisc(player);
+        }
+        if (!game.locate_disc(move, disc)) {
+            game.locate_disc(move, new SimpleDisc(player)); // no special disc of that type left
+        }
+    }
+}
@@ -0,0 +1,46 @@
+package reversi.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * The throughput of the moves of the simple AI players on the fixture positions of BenchmarkFixtures;
+ * run with -prof gc for the allocation rate.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class AIPlayerBenchmark {
+    @Param({"GreedyAI", "RandomAI"})
+    public String player;
+
+    @Param({"opening", "midgame", "bomb-dense", "unflippable-dense", "endgame"})
+    public String position;
+
+    private Supplier<Object> makeMove;
+
+    @Setup
+    public void setUp() {
+        makeMove = Fixtures.get("makeMove", player, position);
+    }
+
+    @Benchmark
+    public Object makeMove() {
+        return makeMove.get();
+    }
+}
@@ -0,0 +1,36 @@
+package reversi.benchmarks;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.util.Arrays;
+
+/**
+ * Looks up the operations of BenchmarkFixtures, which is in the default package with the game classes and
+ * can only be reached by reflection from a named package. Only the setup of a benchmark calls it.
+ */
+final class Fixtures {
+    private Fixtures() {
+    }
+
+    /**
+     * Calls a static method of BenchmarkFixtures.
+     *
+     * @param name      the name of the method
+     * @param arguments the arguments, all strings
+     * @param <T>       the functional interface the method returns
+     * @return the result of the method
+     */
+    @SuppressWarnings("unchecked")
+    static <T> T get(String name, String... arguments) {
+        try {
+            Class<?>[] types = new Class<?>[arguments.length];
+            Arrays.fill(types, String.class);
+            Method method = Class.forName("BenchmarkFixtures").getMethod(name, types);
+            return (T) method.invoke(null, (Object[]) arguments);
+        } catch (InvocationTargetException e) {
+            throw new IllegalStateException("Fixture " + name + " failed", e.getCause());
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException("No fixture " + name, e);
+        }
+    }
+}
@@ -0,0 +1,128 @@
+package reversi.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+import java.util.function.BooleanSupplier;
+import java.util.function.IntSupplier;
+import java.util.function.Supplier;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * The throughput of the GameLogic operations on the fixture positions of BenchmarkFixtures.
+ * locate_disc and undoLastMove are measured together, and each alone with the other one run between the
+ * invocations; run with -prof gc for the allocation rate.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class GameLogicBenchmark {
+    @Param({"opening", "midgame", "bomb-dense", "unflippable-dense", "endgame"})
+    public String position;
+
+    private Supplier<Object> validMoves;
+    private IntSupplier countFlips;
+    private IntSupplier locateAndUndo;
+    private BooleanSupplier isGameFinished;
+
+    @Setup
+    public void setUp() {
+        validMoves = Fixtures.get("validMoves", position);
+        countFlips = Fixtures.get("countFlips", position);
+        locateAndUndo = Fixtures.get("locateAndUndo", position);
+        isGameFinished = Fixtures.get("isGameFinished", position);
+    }
+
+    @Benchmark
+    public Object validMoves() {
+        return validMoves.get();
+    }
+
+    @Benchmark
+    public int countFlips() {
+        return countFlips.getAsInt();
+    }
+
+    @Benchmark
+    public int locateDiscAndUndo() {
+        return locateAndUndo.getAsInt();
+    }
+
+    @Benchmark
+    public boolean isGameFinished() {
+        return isGameFinished.getAsBoolean();
+    }
+
+    /**
+     * A position where the move is played before every invocation.
+     */
+    @State(Scope.Thread)
+    public static class Played {
+        @Param({"opening", "midgame", "bomb-dense", "unflippable-dense", "endgame"})
+        public String position;
+        Runnable locate;
+        Runnable undo;
+
+        @Setup(Level.Trial)
+        public void setUp() {
+            Runnable[] steps = Fixtures.get("locateThenUndo", position);
+            locate = steps[0];
+            undo = steps[1];
+        }
+
+        @Setup(Level.Invocation)
+        public void play() {
+            locate.run();
+        }
+    }
+
+    /**
+     * A position where the move is taken back before every invocation.
+     */
+    @State(Scope.Thread)
+    public static class Unplayed {
+        @Param({"opening", "midgame", "bomb-dense", "unflippable-dense", "endgame"})
+        public String position;
+        Runnable locate;
+        Runnable undo;
+        boolean played;
+
+        @Setup(Level.Trial)
+        public void setUp() {
+            Runnable[] steps = Fixtures.get("locateThenUndo", position);
+            locate = steps[0];
+            undo = steps[1];
+        }
+
+        @Setup(Level.Invocation)
+        public void takeBack() {
+            if (played) {
+                undo.run();
+            }
+            played = true;
+        }
+    }
+
+    @Benchmark
+    public void undoLastMove(Played state) {
+        state.undo.run();
+    }
+
+    @Benchmark
+    public void locateDisc(Unplayed state) {
+        state.locate.run();
+    }
+}
@@ -0,0 +1,48 @@
+package reversi.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+import java.util.function.BooleanSupplier;
+import java.util.function.IntSupplier;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * The throughput of whole games of random moves on GameLogic, and of isGameFinished once a game is over;
+ * run with -prof gc for the allocation rate.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class WholeGameBenchmark {
+    private IntSupplier randomGame;
+    private BooleanSupplier isGameFinished;
+
+    @Setup
+    public void setUp() {
+        randomGame = Fixtures.get("randomGame");
+        isGameFinished = Fixtures.get("isGameFinished", "finished");
+        isGameFinished.getAsBoolean(); // the first call records the win
+    }
+
+    @Benchmark
+    public int randomGame() {
+        return randomGame.getAsInt();
+    }
+
+    @Benchmark
+    public boolean isGameFinishedWhenOver() {
+        return isGameFinished.getAsBoolean();
+    }
+}